@@ -1,14 +1,15 @@
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
 
 public class SAES {
     // S盒与逆S盒
-    private static final int[] S_BOX = {
+    static final int[] S_BOX = {
         0x9, 0x4, 0xA, 0xB,
         0xD, 0x1, 0x8, 0x5,
         0x6, 0x2, 0x0, 0x3,
         0xC, 0xE, 0xF, 0x7
     };
-    private static final int[] INV_S_BOX = {
+    static final int[] INV_S_BOX = {
         0xA, 0x5, 0x9, 0xB,
         0x1, 0x7, 0x8, 0xF,
         0x6, 0x0, 0x2, 0x3,
@@ -16,16 +17,19 @@ public class SAES {
     };
 
     // 轮常数
-    private static final int RCON1 = 0x80;
-    private static final int RCON2 = 0x30;
+    static final int RCON1 = 0x80;
+    static final int RCON2 = 0x30;
+
+    // 字符串接口按密钥复用的批量引擎（由SAESEngines按-Dsaes.engine选择），反复用同一密钥时不必重复扩展密钥
+    private static final SAESKeyCache<SAESBlockCipher> CIPHER_CACHE = SAESKeyCache.engines(256);
 
 
     // GF(2⁴)有限域乘法，模多项式x⁴+x+1
-    private static int gfMult(int a, int b) {
+    static int gfMult(int a, int b) {
         if (a == 0 || b == 0) return 0;
         int result = 0;
         for (int i = 0; i < 4; i++) {
-            if ((b & (1 << (3 - i))) != 0) {
+            if ((b & (1 << i)) != 0) {
                 result ^= (a << i);
             }
         }
@@ -191,139 +195,148 @@ public class SAES {
     }
 
 
-    // 字符串→16位数据块数组（2字节分组，不足补0x00）
-    private static int[] strToBlocks(String s) {
-        int blockCount = (s.length() + 1) / 2;
-        int[] blocks = new int[blockCount];
-        for (int i = 0; i < blockCount; i++) {
-            int b1 = (i * 2 < s.length()) ? (int) s.charAt(i * 2) : 0x00;
-            int b2 = (i * 2 + 1 < s.length()) ? (int) s.charAt(i * 2 + 1) : 0x00;
-            blocks[i] = (b1 << 8) | b2;
-        }
-        return blocks;
+    /**
+     * 字符串与字节的约定：明文字符串按UTF-8编码，密文字符串每个字符对应一个字节（ISO-8859-1），
+     * 因此任意明文（含0x00、非ASCII字符）都能无损往返；ECB与CBC使用SAESPadding的PKCS#7填充
+     */
+    private static byte[] plainBytes(String plaintext) {
+        return plaintext.getBytes(StandardCharsets.UTF_8);
     }
 
-    // 16位数据块数组→字符串（过滤补位0x00）
-    private static String blocksToStr(int[] blocks) {
-        StringBuilder sb = new StringBuilder();
-        for (int block : blocks) {
-            char c1 = (char) ((block >> 8) & 0xFF);
-            char c2 = (char) (block & 0xFF);
-            if (c1 != 0x00) sb.append(c1);
-            if (c2 != 0x00) sb.append(c2);
-        }
-        return sb.toString();
+    private static String plainString(byte[] plain) {
+        return new String(plain, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] cipherBytes(String ciphertext) {
+        return ciphertext.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static String cipherString(byte[] cipher) {
+        return new String(cipher, StandardCharsets.ISO_8859_1);
     }
 
-    // 字符串加密
+    private static SAESBlockCipher cipher(int key16) {
+        return CIPHER_CACHE.get(key16);
+    }
+
+    // 字符串接口共享的密钥缓存，可查看命中率等统计
+    public static SAESKeyCache<SAESBlockCipher> cipherCache() {
+        return CIPHER_CACHE;
+    }
+
+    // 字符串加密（PKCS#7填充；较长的数据由SAESEcb分块并行）
     public static String encryptStr(String plaintext, int key16) {
-        int[] blocks = strToBlocks(plaintext);
-        int[] cipherBlocks = Arrays.stream(blocks)
-                .map(block -> encrypt16(block, key16))
-                .toArray();
-        return blocksToStr(cipherBlocks);
+        return cipherString(new SAESEcb(cipher(key16), ForkJoinPool.commonPool()).encryptPadded(plainBytes(plaintext)));
     }
 
-    // 字符串解密
+    // 字符串解密；填充无效（密钥错误或密文被篡改）时抛出IllegalArgumentException
     public static String decryptStr(String ciphertext, int key16) {
-        int[] blocks = strToBlocks(ciphertext);
-        int[] plainBlocks = Arrays.stream(blocks)
-                .map(block -> decrypt16(block, key16))
-                .toArray();
-        return blocksToStr(plainBlocks);
+        return plainString(new SAESEcb(cipher(key16), ForkJoinPool.commonPool()).decryptPadded(cipherBytes(ciphertext)));
     }
 
 
     // 双重加密：32位密钥（K1+K2）→ E(K2, E(K1, P))
     public static int doubleEncrypt(int plaintext16, int key32) {
-        int k1 = (key32 >> 16) & 0xFFFF;
-        int k2 = key32 & 0xFFFF;
-        return encrypt16(encrypt16(plaintext16, k1), k2);
+        return SAESMultiCipher.doubleCipher(key32).encryptBlock(plaintext16);
     }
 
     // 双重解密：D(K1, D(K2, C))
     public static int doubleDecrypt(int ciphertext16, int key32) {
-        int k1 = (key32 >> 16) & 0xFFFF;
-        int k2 = key32 & 0xFFFF;
-        return decrypt16(decrypt16(ciphertext16, k2), k1);
+        return SAESMultiCipher.doubleCipher(key32).decryptBlock(ciphertext16);
     }
 
 
     // 中间相遇攻击：通过明密文对查找32位双重加密密钥
+    // 前向表按中间值分桶（计数排序），每个K2的匹配是O(1)查找；返回最小K2下的最小K1
     public static Integer meetInTheMiddle(int plaintext16, int ciphertext16) {
-        int[] forwardMap = new int[0x10000];
-        for (int k1 = 0; k1 < 0x10000; k1++) {
-            forwardMap[k1] = encrypt16(plaintext16, k1);
-        }
+        SAESMitmIndex forwardIndex = SAESMitmIndex.build(plaintext16);
 
         for (int k2 = 0; k2 < 0x10000; k2++) {
-            int midVal = decrypt16(ciphertext16, k2);
-            for (int k1 = 0; k1 < 0x10000; k1++) {
-                if (forwardMap[k1] == midVal) {
-                    return (k1 << 16) | k2;
-                }
+            int midVal = SAESTables.decrypt16(ciphertext16, k2);
+            int k1 = forwardIndex.firstKey(midVal);
+            if (k1 >= 0) {
+                return (k1 << 16) | k2;
             }
         }
         return null;
     }
 
+    // 多对明密文的中间相遇攻击：返回与全部明密文对一致的所有32位密钥
+    public static SAESKeySet meetInTheMiddle(int[] plaintexts16, int[] ciphertexts16) {
+        return SAESMitm.findKeys(plaintexts16, ciphertexts16);
+    }
+
 
     // 三重加密：32位密钥（K1+K2），EDE模式
     public static int tripleEncrypt(int plaintext16, int key32) {
-        int k1 = (key32 >> 16) & 0xFFFF;
-        int k2 = key32 & 0xFFFF;
-        int step1 = encrypt16(plaintext16, k2);
-        int step2 = decrypt16(step1, k1);
-        int step3 = encrypt16(step2, k2);
-        return step3;
+        return SAESMultiCipher.tripleCipher(key32).encryptBlock(plaintext16);
     }
 
     // 三重解密：32位密钥（K1+K2），DDE模式
     public static int tripleDecrypt(int ciphertext16, int key32) {
-        int k1 = (key32 >> 16) & 0xFFFF;
-        int k2 = key32 & 0xFFFF;
-        int step1 = decrypt16(ciphertext16, k2);
-        int step2 = encrypt16(step1, k1);
-        int step3 = decrypt16(step2, k2);
-        return step3;
+        return SAESMultiCipher.tripleCipher(key32).decryptBlock(ciphertext16);
+    }
+
+    // 三重加密（模式2）：48位密钥（K1+K2+K3），流程K1→K2→K3
+    public static int tripleEncryptMode2(int plaintext16, long key48) {
+        return SAESMultiCipher.tripleCipher3(key48).encryptBlock(plaintext16);
+    }
+
+    // 三重解密（模式2）：48位密钥（K1+K2+K3），流程K3→K2→K1
+    public static int tripleDecryptMode2(int ciphertext16, long key48) {
+        return SAESMultiCipher.tripleCipher3(key48).decryptBlock(ciphertext16);
+    }
+
+    // 三重加密（模式2）的中间相遇攻击：返回与全部明密文对一致的所有48位密钥（建议至少3对）
+    public static long[] tripleMeetInTheMiddle(int[] plaintexts16, int[] ciphertexts16) {
+        return SAESTripleMitm.findKeys(plaintexts16, ciphertexts16);
     }
 
 
-    // CBC加密：需16位IV
+    // CBC加密：需16位IV（PKCS#7填充）
     public static String cbcEncrypt(String plaintext, int key16, int iv16) {
-        int[] plainBlocks = strToBlocks(plaintext);
-        int[] cipherBlocks = new int[plainBlocks.length];
-        int prevBlock = iv16;
-
-        for (int i = 0; i < plainBlocks.length; i++) {
-            int xorBlock = plainBlocks[i] ^ prevBlock;
-            cipherBlocks[i] = encrypt16(xorBlock, key16);
-            prevBlock = cipherBlocks[i];
-        }
-        return blocksToStr(cipherBlocks);
+        return cipherString(SAESCore.encryptCBCPadded(cipher(key16), plainBytes(plaintext), iv16));
     }
 
-    // CBC解密：需16位IV
+    // CBC解密：需16位IV（分块并行）；填充无效时抛出IllegalArgumentException
     public static String cbcDecrypt(String ciphertext, int key16, int iv16) {
-        int[] cipherBlocks = strToBlocks(ciphertext);
-        int[] plainBlocks = new int[cipherBlocks.length];
-        int prevBlock = iv16;
-
-        for (int i = 0; i < cipherBlocks.length; i++) {
-            int decryptBlock = decrypt16(cipherBlocks[i], key16);
-            plainBlocks[i] = decryptBlock ^ prevBlock;
-            prevBlock = cipherBlocks[i];
-        }
-        return blocksToStr(plainBlocks);
+        byte[] data = cipherBytes(ciphertext);
+        new SAESCbc(cipher(key16), ForkJoinPool.commonPool()).decrypt(data, 0, data, 0, data.length, iv16);
+        return new String(data, 0, SAESPadding.unpad(data, 0, data.length), StandardCharsets.UTF_8);
+    }
+
+    // OFB加密：需16位IV（密钥流周期会被缓存；流模式无需填充，密文与明文字节数相同）
+    public static String ofbEncrypt(String plaintext, int key16, int iv16) {
+        return cipherString(new SAESOfb(key16, iv16).process(plainBytes(plaintext)));
+    }
+
+    // OFB解密：需16位IV
+    public static String ofbDecrypt(String ciphertext, int key16, int iv16) {
+        return plainString(new SAESOfb(key16, iv16).process(cipherBytes(ciphertext)));
+    }
+
+    // CFB加密：需16位IV（最后不足一个分组的字节只用密钥流的高8位，无需填充）
+    public static String cfbEncrypt(String plaintext, int key16, int iv16) {
+        byte[] data = plainBytes(plaintext);
+        new SAESCfb(cipher(key16), ForkJoinPool.commonPool()).encrypt(data, 0, data, 0, data.length, iv16);
+        return cipherString(data);
+    }
+
+    // CFB解密：需16位IV
+    public static String cfbDecrypt(String ciphertext, int key16, int iv16) {
+        byte[] data = cipherBytes(ciphertext);
+        new SAESCfb(cipher(key16), ForkJoinPool.commonPool()).decrypt(data, 0, data, 0, data.length, iv16);
+        return plainString(data);
     }
 
-    // CBC密文篡改：修改指定索引的密文块
+    // CBC密文篡改：把第tamperIndex个密文分组异或上tamperVal
     public static String tamperCbcCiphertext(String ciphertext, int tamperIndex, int tamperVal) {
-        int[] blocks = strToBlocks(ciphertext);
-        if (tamperIndex >= 0 && tamperIndex < blocks.length) {
-            blocks[tamperIndex] ^= tamperVal;
+        byte[] data = cipherBytes(ciphertext);
+        if (tamperIndex >= 0 && tamperIndex < data.length / 2) {
+            data[2 * tamperIndex] ^= (byte) (tamperVal >>> 8);
+            data[2 * tamperIndex + 1] ^= (byte) tamperVal;
         }
-        return blocksToStr(blocks);
+        return cipherString(data);
     }
 
 
@@ -0,0 +1,392 @@
+import java.util.Random;
+
+/**
+ * 位切片S-AES引擎
+ * 把64个独立分组按位转置到16个long中（slices[i]的第j位 = 第j个分组的第i位），
+ * S盒用由S_BOX推导出的布尔电路（代数正规型）计算，行移位为切片交换，列混淆为切片异或，
+ * 一次运算即可并行处理64个分组，或同一明文在64个不同密钥下的加解密（用于密钥搜索）。
+ */
+public final class SAESBitsliced implements SAESBlockCipher {
+    private static final int LANES = 64;
+    // 第j个通道取值为j时，低6位各自的切片
+    private static final long[] KEY_RANGE_PATTERNS = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+
+    private final int key16;
+    private final long roundKeys;
+    // 广播后的轮密钥切片：[0,16)=K0，[16,32)=K1，[32,48)=K2，每个切片为全0或全1
+    private final long[] roundKeySlices = new long[48];
+
+    public SAESBitsliced(int key16) {
+        this.key16 = key16 & 0xFFFF;
+        this.roundKeys = SAESTables.expandKey(this.key16);
+        for (int round = 0; round < 3; round++) {
+            int roundKey = SAESPacked.roundKey(roundKeys, round);
+            for (int i = 0; i < 16; i++) {
+                roundKeySlices[round * 16 + i] = -((roundKey >> i) & 1L);
+            }
+        }
+    }
+
+    public int getKey() {
+        return key16;
+    }
+
+
+    // 单分组没有并行度可用，直接走查表引擎
+    @Override
+    public int encryptBlock(int plaintext16) {
+        return SAESTables.encrypt(plaintext16, roundKeys);
+    }
+
+    @Override
+    public int decryptBlock(int ciphertext16) {
+        return SAESTables.decrypt(ciphertext16, roundKeys);
+    }
+
+    @Override
+    public void encryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        long[] slices = new long[16];
+        for (int done = 0; done < len; done += LANES) {
+            int lanes = Math.min(LANES, len - done);
+            toSlices(in, inOff + done, lanes, slices);
+            encryptSlices(slices, roundKeySlices);
+            fromSlices(slices, out, outOff + done, lanes);
+        }
+    }
+
+    @Override
+    public void decryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        long[] slices = new long[16];
+        for (int done = 0; done < len; done += LANES) {
+            int lanes = Math.min(LANES, len - done);
+            toSlices(in, inOff + done, lanes, slices);
+            decryptSlices(slices, roundKeySlices);
+            fromSlices(slices, out, outOff + done, lanes);
+        }
+    }
+
+
+    // 同一明文在多个密钥下加密：out[outOff+i] = E(plaintext16, keys[keyOff+i])
+    public static void encryptMultiKey(int plaintext16, int[] keys, int keyOff, int[] out, int outOff, int len) {
+        long[] slices = new long[16];
+        long[] keySlices = new long[16];
+        long[] roundKeySlices = new long[48];
+        for (int done = 0; done < len; done += LANES) {
+            int lanes = Math.min(LANES, len - done);
+            toSlices(keys, keyOff + done, lanes, keySlices);
+            expandKeySlices(keySlices, roundKeySlices);
+            broadcast(plaintext16, slices);
+            encryptSlices(slices, roundKeySlices);
+            fromSlices(slices, out, outOff + done, lanes);
+        }
+    }
+
+    // 同一密文在多个密钥下解密：out[outOff+i] = D(ciphertext16, keys[keyOff+i])
+    public static void decryptMultiKey(int ciphertext16, int[] keys, int keyOff, int[] out, int outOff, int len) {
+        long[] slices = new long[16];
+        long[] keySlices = new long[16];
+        long[] roundKeySlices = new long[48];
+        for (int done = 0; done < len; done += LANES) {
+            int lanes = Math.min(LANES, len - done);
+            toSlices(keys, keyOff + done, lanes, keySlices);
+            expandKeySlices(keySlices, roundKeySlices);
+            broadcast(ciphertext16, slices);
+            decryptSlices(slices, roundKeySlices);
+            fromSlices(slices, out, outOff + done, lanes);
+        }
+    }
+
+
+    // 密钥搜索：用一对明密文同时测试连续的64个密钥keyBase..keyBase+63（keyBase须为64的倍数），
+    // 返回匹配通道的位掩码，第j位为1表示密钥keyBase+j满足E(plaintext16) = ciphertext16
+    public static long matchKeyRange(int plaintext16, int ciphertext16, int keyBase) {
+        long[] slices = new long[16];
+        long[] roundKeySlices = new long[48];
+        keyRangeSlices(keyBase, slices);
+        expandKeySlices(slices, roundKeySlices);
+        return encryptMatch(plaintext16, ciphertext16, roundKeySlices, slices);
+    }
+
+    // 连续64个密钥的切片无需转置：低6位是固定的交替模式，高10位对所有通道相同
+    static void keyRangeSlices(int keyBase, long[] keySlices) {
+        for (int i = 0; i < 6; i++) {
+            keySlices[i] = KEY_RANGE_PATTERNS[i];
+        }
+        for (int i = 6; i < 16; i++) {
+            keySlices[i] = -((keyBase >> i) & 1L);
+        }
+    }
+
+    // 用已扩展的轮密钥切片加密同一明文，返回结果等于ciphertext16的通道掩码；s为工作缓冲
+    static long encryptMatch(int plaintext16, int ciphertext16, long[] rk, long[] s) {
+        broadcast(plaintext16, s);
+        encryptSlices(s, rk);
+        long diff = 0;
+        for (int i = 0; i < 16; i++) {
+            diff |= s[i] ^ -((ciphertext16 >> i) & 1L);
+        }
+        return ~diff;
+    }
+
+
+    // 位切片加密：流程与SAES.encrypt16相同
+    static void encryptSlices(long[] s, long[] rk) {
+        addRoundKey(s, rk, 0);
+        for (int base = 0; base < 16; base += 4) sBox(s, base);
+        shiftRows(s);
+        mixColumns(s);
+        addRoundKey(s, rk, 16);
+        for (int base = 0; base < 16; base += 4) sBox(s, base);
+        shiftRows(s);
+        addRoundKey(s, rk, 32);
+    }
+
+    // 位切片解密：流程与SAES.decrypt16相同
+    static void decryptSlices(long[] s, long[] rk) {
+        addRoundKey(s, rk, 32);
+        shiftRows(s);
+        for (int base = 0; base < 16; base += 4) invSBox(s, base);
+        addRoundKey(s, rk, 16);
+        invMixColumns(s);
+        shiftRows(s);
+        for (int base = 0; base < 16; base += 4) invSBox(s, base);
+        addRoundKey(s, rk, 0);
+    }
+
+    // 位切片密钥扩展：keySlices为16个密钥切片，输出48个轮密钥切片
+    static void expandKeySlices(long[] keySlices, long[] rk) {
+        System.arraycopy(keySlices, 0, rk, 0, 16);
+        // w0=bit15~8，w1=bit7~0；K1=(w2,w3)，K2=(w4,w5)
+        long[] g = new long[8];
+        gFunc(rk, 0, SAES.RCON1, g);
+        for (int i = 0; i < 8; i++) {
+            rk[16 + 8 + i] = rk[8 + i] ^ g[i];
+            rk[16 + i] = rk[16 + 8 + i] ^ rk[i];
+        }
+        gFunc(rk, 16, SAES.RCON2, g);
+        for (int i = 0; i < 8; i++) {
+            rk[32 + 8 + i] = rk[16 + 8 + i] ^ g[i];
+            rk[32 + i] = rk[32 + 8 + i] ^ rk[16 + i];
+        }
+    }
+
+    // 密钥扩展辅助函数：对从base开始的8个切片（一个字节w）做RotNib + SubNib + RCON
+    private static void gFunc(long[] rk, int base, int rcon, long[] g) {
+        // RotNib：低半字节移到高位，高半字节移到低位
+        for (int i = 0; i < 4; i++) {
+            g[4 + i] = rk[base + i];
+            g[i] = rk[base + 4 + i];
+        }
+        sBox(g, 0);
+        sBox(g, 4);
+        for (int i = 0; i < 8; i++) {
+            g[i] ^= -((rcon >> i) & 1L);
+        }
+    }
+
+
+    // S盒布尔电路：x0为半字节最低位
+    static void sBox(long[] s, int base) {
+        long x0 = s[base], x1 = s[base + 1], x2 = s[base + 2], x3 = s[base + 3];
+        long x01 = x0 & x1, x02 = x0 & x2, x03 = x0 & x3;
+        long x12 = x1 & x2, x13 = x1 & x3, x23 = x2 & x3;
+        long x012 = x01 & x2, x013 = x01 & x3, x023 = x02 & x3, x123 = x12 & x3;
+        s[base] = ~(x0 ^ x1 ^ x02 ^ x012 ^ x3 ^ x03 ^ x13 ^ x013 ^ x023 ^ x123);
+        s[base + 1] = x1 ^ x12 ^ x3 ^ x013 ^ x23 ^ x023 ^ x123;
+        s[base + 2] = x0 ^ x01 ^ x2 ^ x12 ^ x012 ^ x3 ^ x13 ^ x23 ^ x023;
+        s[base + 3] = ~(x0 ^ x01 ^ x012 ^ x3 ^ x03 ^ x013 ^ x23);
+    }
+
+    // 逆S盒布尔电路
+    static void invSBox(long[] s, int base) {
+        long x0 = s[base], x1 = s[base + 1], x2 = s[base + 2], x3 = s[base + 3];
+        long x01 = x0 & x1, x02 = x0 & x2, x03 = x0 & x3;
+        long x12 = x1 & x2, x13 = x1 & x3, x23 = x2 & x3;
+        long x012 = x01 & x2, x013 = x01 & x3, x023 = x02 & x3, x123 = x12 & x3;
+        s[base] = x0 ^ x1 ^ x01 ^ x2 ^ x02 ^ x03 ^ x13 ^ x23 ^ x023 ^ x123;
+        s[base + 1] = ~(x0 ^ x1 ^ x2 ^ x12 ^ x13 ^ x013 ^ x023 ^ x123);
+        s[base + 2] = x0 ^ x01 ^ x012 ^ x3 ^ x13 ^ x023 ^ x123;
+        s[base + 3] = ~(x0 ^ x01 ^ x2 ^ x02 ^ x12 ^ x012 ^ x3 ^ x03 ^ x013 ^ x123);
+    }
+
+    // 行移位：交换s10（bit11~8）与s11（bit3~0）
+    private static void shiftRows(long[] s) {
+        for (int i = 0; i < 4; i++) {
+            long t = s[8 + i];
+            s[8 + i] = s[i];
+            s[i] = t;
+        }
+    }
+
+    // 列混淆：第0列(s00=bit15~12, s10=bit11~8)，第1列(s01=bit7~4, s11=bit3~0)
+    private static void mixColumns(long[] s) {
+        mixColumn(s, 12, 8);
+        mixColumn(s, 4, 0);
+    }
+
+    // [[1,4],[4,1]]；乘4：b0=a2，b1=a2^a3，b2=a0^a3，b3=a1
+    private static void mixColumn(long[] s, int top, int bottom) {
+        long a0 = s[top], a1 = s[top + 1], a2 = s[top + 2], a3 = s[top + 3];
+        long b0 = s[bottom], b1 = s[bottom + 1], b2 = s[bottom + 2], b3 = s[bottom + 3];
+        s[top] = a0 ^ b2;
+        s[top + 1] = a1 ^ b2 ^ b3;
+        s[top + 2] = a2 ^ b0 ^ b3;
+        s[top + 3] = a3 ^ b1;
+        s[bottom] = a2 ^ b0;
+        s[bottom + 1] = a2 ^ a3 ^ b1;
+        s[bottom + 2] = a0 ^ a3 ^ b2;
+        s[bottom + 3] = a1 ^ b3;
+    }
+
+    private static void invMixColumns(long[] s) {
+        invMixColumn(s, 12, 8);
+        invMixColumn(s, 4, 0);
+    }
+
+    // [[9,2],[2,9]]；乘9：b0=a0^a1，b1=a2，b2=a3，b3=a0；乘2：b0=a3，b1=a0^a3，b2=a1，b3=a2
+    private static void invMixColumn(long[] s, int top, int bottom) {
+        long a0 = s[top], a1 = s[top + 1], a2 = s[top + 2], a3 = s[top + 3];
+        long b0 = s[bottom], b1 = s[bottom + 1], b2 = s[bottom + 2], b3 = s[bottom + 3];
+        s[top] = a0 ^ a1 ^ b3;
+        s[top + 1] = a2 ^ b0 ^ b3;
+        s[top + 2] = a3 ^ b1;
+        s[top + 3] = a0 ^ b2;
+        s[bottom] = a3 ^ b0 ^ b1;
+        s[bottom + 1] = a0 ^ a3 ^ b2;
+        s[bottom + 2] = a1 ^ b3;
+        s[bottom + 3] = a2 ^ b0;
+    }
+
+    private static void addRoundKey(long[] s, long[] rk, int offset) {
+        for (int i = 0; i < 16; i++) {
+            s[i] ^= rk[offset + i];
+        }
+    }
+
+
+    /**
+     * 转置：lanes个16位值 → 16个切片，未使用的通道置0
+     * 每8个通道的低字节、高字节各组成一个8×8位矩阵装进一个long，整字转置后按字节散到切片中，
+     * 比逐位搬运少一个数量级的运算。
+     */
+    static void toSlices(int[] values, int off, int lanes, long[] slices) {
+        for (int i = 0; i < 16; i++) {
+            slices[i] = 0;
+        }
+        for (int group = 0; group * 8 < lanes; group++) {
+            long low = 0, high = 0;
+            int count = Math.min(8, lanes - group * 8);
+            for (int r = 0; r < count; r++) {
+                int value = values[off + group * 8 + r];
+                low |= (long) (value & 0xFF) << (8 * r);
+                high |= (long) ((value >>> 8) & 0xFF) << (8 * r);
+            }
+            low = transpose8(low);
+            high = transpose8(high);
+            for (int c = 0; c < 8; c++) {
+                slices[c] |= ((low >>> (8 * c)) & 0xFF) << (8 * group);
+                slices[8 + c] |= ((high >>> (8 * c)) & 0xFF) << (8 * group);
+            }
+        }
+    }
+
+    // 逆转置：16个切片 → lanes个16位值
+    static void fromSlices(long[] slices, int[] values, int off, int lanes) {
+        for (int group = 0; group * 8 < lanes; group++) {
+            long low = 0, high = 0;
+            for (int c = 0; c < 8; c++) {
+                low |= ((slices[c] >>> (8 * group)) & 0xFF) << (8 * c);
+                high |= ((slices[8 + c] >>> (8 * group)) & 0xFF) << (8 * c);
+            }
+            low = transpose8(low);
+            high = transpose8(high);
+            int count = Math.min(8, lanes - group * 8);
+            for (int r = 0; r < count; r++) {
+                values[off + group * 8 + r] = (int) ((low >>> (8 * r)) & 0xFF)
+                        | (int) ((high >>> (8 * r)) & 0xFF) << 8;
+            }
+        }
+    }
+
+    // 8×8位矩阵转置（第r字节的第c位 ↔ 第c字节的第r位），三次分块交换
+    private static long transpose8(long x) {
+        long t = (x ^ (x >>> 7)) & 0x00AA00AA00AA00AAL;
+        x ^= t ^ (t << 7);
+        t = (x ^ (x >>> 14)) & 0x0000CCCC0000CCCCL;
+        x ^= t ^ (t << 14);
+        t = (x ^ (x >>> 28)) & 0x00000000F0F0F0F0L;
+        x ^= t ^ (t << 28);
+        return x;
+    }
+
+    // 把同一个16位值广播到全部64个通道
+    private static void broadcast(int value16, long[] slices) {
+        for (int i = 0; i < 16; i++) {
+            slices[i] = -((value16 >> i) & 1L);
+        }
+    }
+
+    /**
+     * 自检与测速：与SAESTables.encrypt16/decrypt16逐一比对，然后输出与查表引擎的每分组耗时
+     * 默认测试全部65536个密钥，每个密钥1000个随机明文（含不足64个的尾批）；参数full时测试全部2^32个组合。
+     * 用法：java SAESBitsliced [full]
+     */
+    public static void main(String[] args) {
+        boolean full = args.length > 0 && "full".equals(args[0]);
+        int samples = full ? 65536 : 1000;
+        Random random = new Random(0x5AE5);
+        int[] plain = new int[samples];
+        int[] cipher = new int[samples];
+        int[] back = new int[samples];
+        int[] keys = new int[65536];
+        int[] multi = new int[65536];
+        long mismatches = 0;
+        for (int key = 0; key < 65536; key++) {
+            for (int i = 0; i < samples; i++) plain[i] = full ? i : random.nextInt(65536);
+            SAESBitsliced engine = new SAESBitsliced(key);
+            engine.encryptBlocks(plain, 0, cipher, 0, samples);
+            engine.decryptBlocks(cipher, 0, back, 0, samples);
+            // 与encrypt16/decrypt16相同，只是把密钥扩展提到循环外
+            long roundKeys = SAESTables.expandKey(key);
+            for (int i = 0; i < samples; i++) {
+                int expected = SAESTables.encrypt(plain[i], roundKeys);
+                if (cipher[i] != expected || back[i] != SAESTables.decrypt(expected, roundKeys)) mismatches++;
+            }
+            keys[key] = key;
+        }
+        // 多密钥接口：同一明文在全部密钥下加解密，以及连续64个密钥的匹配掩码
+        for (int round = 0; round < 16; round++) {
+            int block = random.nextInt(65536);
+            encryptMultiKey(block, keys, 0, multi, 0, keys.length);
+            for (int key = 0; key < 65536; key++) {
+                if (multi[key] != SAESTables.encrypt16(block, key)) mismatches++;
+            }
+            decryptMultiKey(block, keys, 0, multi, 0, keys.length);
+            for (int key = 0; key < 65536; key++) {
+                if (multi[key] != SAESTables.decrypt16(block, key)) mismatches++;
+            }
+            int key16 = random.nextInt(65536);
+            long mask = matchKeyRange(block, SAESTables.encrypt16(block, key16), key16 & ~63);
+            if ((mask >>> (key16 & 63) & 1) == 0) mismatches++;
+        }
+        System.out.println((full ? "全部2^32个组合" : "全部密钥 × " + samples + "个随机明文")
+                + "：不一致" + mismatches + "处");
+
+        int[] blocks = new int[1 << 20];
+        for (int i = 0; i < blocks.length; i++) blocks[i] = random.nextInt(65536);
+        SAESBlockCipher[] engines = {new SAESCipher(0x2D55), new SAESBitsliced(0x2D55)};
+        for (SAESBlockCipher engine : engines) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 10; round++) {
+                long start = System.nanoTime();
+                engine.encryptBlocks(blocks, 0, blocks, 0, blocks.length);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%s：%.2fns/分组%n", engine.getClass().getSimpleName(), (double) best / blocks.length);
+        }
+        if (mismatches != 0) System.exit(1);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+/**
+ * 绑定了密钥的S-AES分组加解密接口
+ * 各引擎（查表、码本、位切片等）都实现该接口，调用方可按场景互换而结果保持一致。
+ */
+public interface SAESBlockCipher {
+    // 单分组加密
+    int encryptBlock(int plaintext16);
+
+    // 单分组解密
+    int decryptBlock(int ciphertext16);
+
+    // 批量加密：in[inOff..inOff+len) → out[outOff..outOff+len)，in与out可为同一数组
+    void encryptBlocks(int[] in, int inOff, int[] out, int outOff, int len);
+
+    // 批量解密
+    void decryptBlocks(int[] in, int inOff, int[] out, int outOff, int len);
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+import java.util.concurrent.CancellationException;
+
+/**
+ * 长时间任务的取消标记
+ * 调用方（如GUI的取消按钮）调用cancel()，工作线程在各分块边界调用throwIfCancelled()尽快退出。
+ */
+public final class SAESCancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    // 已取消时抛出CancellationException
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("任务已取消");
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * CFB（密文反馈）模式，反馈宽度为整个16位分组
+ * 加密Ci = Pi XOR E(K, C(i-1))，C(-1) = IV，依赖前一个密文分组，只能顺序执行；
+ * 解密Pi = Ci XOR E(K, C(i-1))只依赖密文，与SAESCbc一样按区间分块并行，先记下各块的前一个密文分组。
+ * 与OFB不同，CFB的密钥流由密文决定，无法预先缓存。
+ */
+public final class SAESCfb {
+    // 每个并行分块处理的分组数
+    private static final int CHUNK_BLOCKS = 16 * 1024;
+
+    private final SAESBlockCipher cipher;
+    private final ForkJoinPool pool;
+
+    public SAESCfb(int key16) {
+        this(new SAESCipher(key16), ForkJoinPool.commonPool());
+    }
+
+    public SAESCfb(SAESBlockCipher cipher, ForkJoinPool pool) {
+        this.cipher = cipher;
+        this.pool = pool;
+    }
+
+    // 顺序加密；in与out可为同一数组；返回最后一个密文分组，便于分段续接
+    public int encrypt(int[] in, int inOff, int[] out, int outOff, int len, int iv16) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = 0; i < len; i++) {
+            prevBlock = (in[inOff + i] ^ cipher.encryptBlock(prevBlock)) & 0xFFFF;
+            out[outOff + i] = prevBlock;
+        }
+        return prevBlock;
+    }
+
+    // 并行解密；in与out可为同一数组；返回最后一个密文分组
+    public int decrypt(int[] in, int inOff, int[] out, int outOff, int len, int iv16) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        if (len == 0) return iv16 & 0xFFFF;
+        int lastBlock = in[inOff + len - 1] & 0xFFFF;
+        int[] chunkIvs = new int[(len + CHUNK_BLOCKS - 1) / CHUNK_BLOCKS];
+        chunkIvs[0] = iv16 & 0xFFFF;
+        for (int c = 1; c < chunkIvs.length; c++) {
+            chunkIvs[c] = in[inOff + c * CHUNK_BLOCKS - 1] & 0xFFFF;
+        }
+        SAESParallel.forEachChunk(pool, 0, len, CHUNK_BLOCKS, (from, to) -> {
+            int prevBlock = chunkIvs[(int) (from / CHUNK_BLOCKS)];
+            for (int i = (int) from; i < to; i++) {
+                int cipherBlock = in[inOff + i] & 0xFFFF;
+                out[outOff + i] = cipherBlock ^ cipher.encryptBlock(prevBlock);
+                prevBlock = cipherBlock;
+            }
+        });
+        return lastBlock;
+    }
+
+    /**
+     * 字节数组形式的顺序加密（每2字节一个分组，高字节在前），len可为奇数：
+     * 最后不足一个分组的字节与密钥流的高8位异或，密文与明文等长。返回最后一个完整密文分组
+     */
+    public int encrypt(byte[] in, int inOff, byte[] out, int outOff, int len, int iv16) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        int prevBlock = iv16 & 0xFFFF;
+        int full = len & ~1;
+        for (int i = 0; i < full; i += 2) {
+            prevBlock = readBlock(in, inOff + i) ^ cipher.encryptBlock(prevBlock);
+            out[outOff + i] = (byte) (prevBlock >>> 8);
+            out[outOff + i + 1] = (byte) prevBlock;
+        }
+        if (full < len) {
+            out[outOff + full] = (byte) (in[inOff + full] ^ (cipher.encryptBlock(prevBlock) >>> 8));
+        }
+        return prevBlock;
+    }
+
+    // 字节数组形式的并行解密，len可为奇数；in与out可为同一数组；返回最后一个完整密文分组
+    public int decrypt(byte[] in, int inOff, byte[] out, int outOff, int len, int iv16) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        int blocks = len / 2;
+        int lastBlock = blocks == 0 ? iv16 & 0xFFFF : readBlock(in, inOff + 2 * blocks - 2);
+        if ((len & 1) != 0) {
+            out[outOff + len - 1] = (byte) (in[inOff + len - 1] ^ (cipher.encryptBlock(lastBlock) >>> 8));
+        }
+        if (blocks == 0) return lastBlock;
+        int[] chunkIvs = new int[(blocks + CHUNK_BLOCKS - 1) / CHUNK_BLOCKS];
+        chunkIvs[0] = iv16 & 0xFFFF;
+        for (int c = 1; c < chunkIvs.length; c++) {
+            chunkIvs[c] = readBlock(in, inOff + 2 * (c * CHUNK_BLOCKS - 1));
+        }
+        SAESParallel.forEachChunk(pool, 0, blocks, CHUNK_BLOCKS, (from, to) -> {
+            int prevBlock = chunkIvs[(int) (from / CHUNK_BLOCKS)];
+            for (int i = (int) from; i < to; i++) {
+                int cipherBlock = readBlock(in, inOff + 2 * i);
+                int block = cipherBlock ^ cipher.encryptBlock(prevBlock);
+                out[outOff + 2 * i] = (byte) (block >>> 8);
+                out[outOff + 2 * i + 1] = (byte) block;
+                prevBlock = cipherBlock;
+            }
+        });
+        return lastBlock;
+    }
+
+    private static int readBlock(byte[] data, int pos) {
+        return ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+    }
+
+    private static void checkRange(int arrayLength, int offset, int len) {
+        if (offset < 0 || len < 0 || offset > arrayLength - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + offset + "，len=" + len);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * NIO通道适配：把SAESOutputStream、SAESInputStream包装成WritableByteChannel、ReadableByteChannel
+ * 下层通道须为阻塞模式。写通道关闭时补填充（或去填充）并关闭下层通道，因此必须调用close。
+ */
+public final class SAESChannels {
+    private SAESChannels() {
+    }
+
+    // 写入的数据经加密（encrypt为false时解密）后写到channel
+    public static WritableByteChannel writableChannel(WritableByteChannel channel, SAESMode mode,
+                                                      SAESBlockCipher cipher, int iv16, boolean encrypt) {
+        return Channels.newChannel(new SAESOutputStream(Channels.newOutputStream(channel), mode, cipher, iv16,
+                encrypt, SAESOutputStream.DEFAULT_BUFFER_BYTES));
+    }
+
+    // 从channel读到的数据经解密（encrypt为true时加密）后交给调用方
+    public static ReadableByteChannel readableChannel(ReadableByteChannel channel, SAESMode mode,
+                                                      SAESBlockCipher cipher, int iv16, boolean encrypt) {
+        return Channels.newChannel(new SAESInputStream(Channels.newInputStream(channel), mode, cipher, iv16,
+                encrypt, SAESInputStream.DEFAULT_BUFFER_BYTES));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+/**
+ * 可复用的S-AES加解密对象
+ * 构造时只做一次密钥扩展并保存打包后的轮密钥，之后的单分组与批量加解密都不再扩展密钥。
+ * 对象不可变、无内部可变状态，可在多线程间共享而无需加锁。
+ */
+public final class SAESCipher implements SAESBlockCipher {
+    private final int key16;
+    private final long roundKeys;
+
+    public SAESCipher(int key16) {
+        this.key16 = key16 & 0xFFFF;
+        this.roundKeys = SAESTables.expandKey(this.key16);
+    }
+
+    public int getKey() {
+        return key16;
+    }
+
+
+    // 单分组加密
+    public int encryptBlock(int plaintext16) {
+        return SAESTables.encrypt(plaintext16, roundKeys);
+    }
+
+    // 单分组解密
+    public int decryptBlock(int ciphertext16) {
+        return SAESTables.decrypt(ciphertext16, roundKeys);
+    }
+
+
+    // 批量加密：in[inOff..inOff+len) → out[outOff..outOff+len)，in与out可为同一数组
+    public void encryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = SAESTables.encrypt(in[inOff + i], roundKeys);
+        }
+    }
+
+    // 批量解密
+    public void decryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = SAESTables.decrypt(in[inOff + i], roundKeys);
+        }
+    }
+
+    // 批量加密，返回新数组
+    public int[] encryptBlocks(int[] blocks) {
+        int[] out = new int[blocks.length];
+        encryptBlocks(blocks, 0, out, 0, blocks.length);
+        return out;
+    }
+
+    // 批量解密，返回新数组
+    public int[] decryptBlocks(int[] blocks) {
+        int[] out = new int[blocks.length];
+        decryptBlocks(blocks, 0, out, 0, blocks.length);
+        return out;
+    }
+
+
+    // CBC加密：Ci = E(Pi XOR Ci-1)，C0 = IV；返回最后一个密文分组，便于分段续接
+    public int cbcEncryptBlocks(int[] in, int inOff, int[] out, int outOff, int len, int iv16) {
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = 0; i < len; i++) {
+            prevBlock = SAESTables.encrypt(in[inOff + i] ^ prevBlock, roundKeys);
+            out[outOff + i] = prevBlock;
+        }
+        return prevBlock;
+    }
+
+    // CBC解密：Pi = D(Ci) XOR Ci-1；返回最后一个密文分组，便于分段续接
+    public int cbcDecryptBlocks(int[] in, int inOff, int[] out, int outOff, int len, int iv16) {
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = 0; i < len; i++) {
+            int cipherBlock = in[inOff + i];
+            out[outOff + i] = SAESTables.decrypt(cipherBlock, roundKeys) ^ prevBlock;
+            prevBlock = cipherBlock;
+        }
+        return prevBlock;
+    }
+}
\ No newline at end of file
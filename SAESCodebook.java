@@ -0,0 +1,83 @@
+import java.util.stream.IntStream;
+
+/**
+ * 单个密钥的完整码本
+ * S-AES分组只有65536种取值，一个密钥的加密置换和解密置换各用一个short[65536]（128KB）即可完整保存。
+ * 码本由SAES.encrypt16/decrypt16并行生成，之后每个分组的加解密只需一次数组查找。
+ * 对象构建完成后只读，可在多线程间共享。
+ */
+public final class SAESCodebook implements SAESBlockCipher {
+    private static final int BLOCK_COUNT = 0x10000;
+
+    private final int key16;
+    private final short[] encryptTable;
+    private final short[] decryptTable;
+    private final long buildTimeNanos;
+
+    private SAESCodebook(int key16, short[] encryptTable, short[] decryptTable, long buildTimeNanos) {
+        this.key16 = key16;
+        this.encryptTable = encryptTable;
+        this.decryptTable = decryptTable;
+        this.buildTimeNanos = buildTimeNanos;
+    }
+
+    // 为指定密钥并行生成完整码本
+    public static SAESCodebook build(int key16) {
+        final int key = key16 & 0xFFFF;
+        long start = System.nanoTime();
+        short[] encryptTable = new short[BLOCK_COUNT];
+        short[] decryptTable = new short[BLOCK_COUNT];
+        IntStream.range(0, BLOCK_COUNT).parallel().forEach(block -> {
+            encryptTable[block] = (short) SAES.encrypt16(block, key);
+            decryptTable[block] = (short) SAES.decrypt16(block, key);
+        });
+        return new SAESCodebook(key, encryptTable, decryptTable, System.nanoTime() - start);
+    }
+
+    public int getKey() {
+        return key16;
+    }
+
+    // 码本生成耗时（纳秒）
+    public long getBuildTimeNanos() {
+        return buildTimeNanos;
+    }
+
+    // 码本占用的内存（字节，仅计两张表的数据部分）
+    public long getMemoryBytes() {
+        return 2L * BLOCK_COUNT * Short.BYTES;
+    }
+
+
+    // 单分组加密
+    public int encryptBlock(int plaintext16) {
+        return encryptTable[plaintext16 & 0xFFFF] & 0xFFFF;
+    }
+
+    // 单分组解密
+    public int decryptBlock(int ciphertext16) {
+        return decryptTable[ciphertext16 & 0xFFFF] & 0xFFFF;
+    }
+
+    // 批量加密：in与out可为同一数组
+    public void encryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        short[] table = encryptTable;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = table[in[inOff + i] & 0xFFFF] & 0xFFFF;
+        }
+    }
+
+    // 批量解密
+    public void decryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        short[] table = decryptTable;
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = table[in[inOff + i] & 0xFFFF] & 0xFFFF;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SAESCodebook[key=%04X, build=%.2fms, memory=%dKB]",
+                key16, buildTimeNanos / 1e6, getMemoryBytes() / 1024);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,332 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 分块CBC加密容器文件
+ * 明文按chunkBytes字节（偶数）切成若干块，每块单独做CBC链接，IV由文件随机数nonce与块序号派生：
+ * IV(i) = E(K, mix(nonce + (i + 1)·φ))的16位，mix为SplitMix64的混合函数。各块互不依赖，
+ * 所以加密、解密都可以按块在ForkJoinPool中并行；读取任意字节区间时只需解密涉及的分组
+ * （CBC解密某个分组只需要它和前一个密文分组），不必解密整个文件。
+ * 只有最后一块做PKCS#7填充，其余块的密文与明文等长。
+ * 注意：IV只有16位，不同块的IV并不保证互不相同，按生日界约300块后出现重复IV的概率就超过一半；
+ * IV相同的两块若开头的明文分组也相同，对应的密文分组会相同，从而泄露这一点。
+ * 输入与输出不能是同一文件；加密或解密失败时删除不完整的输出文件。
+ *
+ * 文件布局（大端序）：
+ *   头部20字节：魔数"SAEC"、版本号、nonce（8字节）、chunkBytes
+ *   各块密文依次排列
+ *   索引：每块密文在文件中的偏移（8字节×块数）
+ *   尾部24字节：索引偏移（8字节）、明文总长（8字节）、块数、魔数
+ */
+public final class SAESContainer implements Closeable {
+    public static final int DEFAULT_CHUNK_BYTES = 64 * 1024;
+
+    private static final int MAGIC = 0x53414543;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+    private static final int FOOTER_BYTES = 24;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final SAESBlockCipher cipher;
+    private final ForkJoinPool pool;
+    private final long nonce;
+    private final int chunkBytes;
+    private final long plaintextLength;
+    private final long[] chunkOffsets;
+
+    private SAESContainer(Path file, FileChannel channel, SAESBlockCipher cipher, ForkJoinPool pool, long nonce,
+                          int chunkBytes, long plaintextLength, long[] chunkOffsets) {
+        this.file = file;
+        this.channel = channel;
+        this.cipher = cipher;
+        this.pool = pool;
+        this.nonce = nonce;
+        this.chunkBytes = chunkBytes;
+        this.plaintextLength = plaintextLength;
+        this.chunkOffsets = chunkOffsets;
+    }
+
+    // 用随机nonce和默认块大小把input加密成容器文件output，返回容器文件的字节数
+    public static long encrypt(SAESBlockCipher cipher, Path input, Path output, ForkJoinPool pool)
+            throws IOException {
+        return encrypt(cipher, input, output, DEFAULT_CHUNK_BYTES, new SecureRandom().nextLong(), pool);
+    }
+
+    /**
+     * 把input加密成容器文件output，各块并行加密后按偏移直接写入，返回容器文件的字节数
+     * 同一密钥下每个文件应使用不同的nonce。堆占用为每个工作线程一块的缓冲区。
+     */
+    public static long encrypt(SAESBlockCipher cipher, Path input, Path output, int chunkBytes, long nonce,
+                               ForkJoinPool pool) throws IOException {
+        if (chunkBytes <= 0 || (chunkBytes & 1) != 0) {
+            throw new IllegalArgumentException("块大小必须为正偶数：" + chunkBytes);
+        }
+        checkDistinct(input, output);
+        try {
+            return encryptTo(cipher, input, output, chunkBytes, nonce, pool);
+        } catch (IOException | RuntimeException e) {
+            deleteAfterFailure(output, e);
+            throw e;
+        }
+    }
+
+    private static long encryptTo(SAESBlockCipher cipher, Path input, Path output, int chunkBytes, long nonce,
+                                  ForkJoinPool pool) throws IOException {
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long length = in.size();
+            long count = Math.max(1, (length + chunkBytes - 1) / chunkBytes);
+            if (count > Integer.MAX_VALUE) throw new IOException("块数过多，请增大块大小");
+            int chunkCount = (int) count;
+            long[] offsets = new long[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                offsets[i] = HEADER_BYTES + (long) i * chunkBytes;
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(VERSION).putLong(nonce).putInt(chunkBytes).flip();
+            writeFully(out, header, 0);
+
+            try {
+                SAESParallel.forEachChunk(pool, 0, chunkCount, 1, (from, to) -> {
+                    byte[] buffer = new byte[chunkBytes + SAESPadding.BLOCK_BYTES];
+                    for (int i = (int) from; i < to; i++) {
+                        int len = (int) Math.min(chunkBytes, length - (long) i * chunkBytes);
+                        int iv16 = chunkIv(cipher, nonce, i);
+                        try {
+                            readFully(in, ByteBuffer.wrap(buffer, 0, len), (long) i * chunkBytes);
+                            int cipherLen;
+                            if (i == chunkCount - 1) {
+                                cipherLen = SAESCore.encryptCBCPadded(cipher, buffer, 0, len, iv16);
+                            } else {
+                                SAESCore.encryptCBC(cipher, buffer, 0, buffer, 0, len, iv16);
+                                cipherLen = len;
+                            }
+                            writeFully(out, ByteBuffer.wrap(buffer, 0, cipherLen), offsets[i]);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            long lastLength = length - (long) (chunkCount - 1) * chunkBytes;
+            long indexOffset = offsets[chunkCount - 1] + SAESPadding.paddedLength((int) lastLength);
+            ByteBuffer trailer = ByteBuffer.allocate(8 * chunkCount + FOOTER_BYTES);
+            for (long offset : offsets) trailer.putLong(offset);
+            trailer.putLong(indexOffset).putLong(length).putInt(chunkCount).putInt(MAGIC).flip();
+            writeFully(out, trailer, indexOffset);
+            return indexOffset + trailer.capacity();
+        }
+    }
+
+    // 打开容器文件，读取头部、尾部与索引；格式错误时抛出IOException
+    public static SAESContainer open(Path file, SAESBlockCipher cipher, ForkJoinPool pool) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES + FOOTER_BYTES) throw new IOException("不是SAES容器文件：长度过短");
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("不是SAES容器文件或版本不支持");
+            }
+            long nonce = header.getLong();
+            int chunkBytes = header.getInt();
+            if (chunkBytes <= 0 || (chunkBytes & 1) != 0) throw new IOException("容器头部块大小无效：" + chunkBytes);
+
+            ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+            readFully(channel, footer, size - FOOTER_BYTES);
+            footer.flip();
+            long indexOffset = footer.getLong();
+            long plaintextLength = footer.getLong();
+            int chunkCount = footer.getInt();
+            if (footer.getInt() != MAGIC || chunkCount <= 0 || plaintextLength < 0
+                    || indexOffset != size - FOOTER_BYTES - 8L * chunkCount
+                    || Math.max(1, (plaintextLength + chunkBytes - 1) / chunkBytes) != chunkCount) {
+                throw new IOException("容器尾部或索引损坏");
+            }
+
+            ByteBuffer index = ByteBuffer.allocate(8 * chunkCount);
+            readFully(channel, index, indexOffset);
+            index.flip();
+            long[] offsets = new long[chunkCount];
+            for (int i = 0; i < chunkCount; i++) {
+                offsets[i] = index.getLong();
+                long cipherLength = i == chunkCount - 1
+                        ? SAESPadding.paddedLength((int) (plaintextLength - (long) i * chunkBytes))
+                        : chunkBytes;
+                if (offsets[i] < HEADER_BYTES || offsets[i] + cipherLength > indexOffset) {
+                    throw new IOException("第" + i + "块的偏移越界：" + offsets[i]);
+                }
+            }
+            return new SAESContainer(file, channel, cipher, pool, nonce, chunkBytes, plaintextLength, offsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getPlaintextLength() {
+        return plaintextLength;
+    }
+
+    public int getChunkBytes() {
+        return chunkBytes;
+    }
+
+    public int getChunkCount() {
+        return chunkOffsets.length;
+    }
+
+    public long getNonce() {
+        return nonce;
+    }
+
+    /**
+     * 随机读取：把明文[position, position+len)解密到out[off..]，涉及的各块并行处理
+     * 每块只读取并解密覆盖该区间的分组及其前一个密文分组。返回实际读取的字节数（到达明文末尾时可能更少）。
+     */
+    public int read(long position, byte[] out, int off, int len) throws IOException {
+        if (position < 0 || off < 0 || len < 0 || off > out.length - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：position=" + position + "，len=" + len);
+        }
+        long end = Math.min(plaintextLength, position + len);
+        if (end <= position) return 0;
+        int firstChunk = (int) (position / chunkBytes);
+        int lastChunk = (int) ((end - 1) / chunkBytes);
+        try {
+            SAESParallel.forEachChunk(pool, firstChunk, lastChunk + 1L, 1, (from, to) -> {
+                for (int i = (int) from; i < to; i++) {
+                    long chunkStart = (long) i * chunkBytes;
+                    int begin = (int) (Math.max(position, chunkStart) - chunkStart);
+                    int finish = (int) (Math.min(end, chunkStart + chunkBytes) - chunkStart);
+                    try {
+                        readRange(i, begin, finish, out, off + (int) (chunkStart + begin - position));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return (int) (end - position);
+    }
+
+    /**
+     * 把整个容器并行解密到output，返回明文字节数
+     * 最后一块会校验PKCS#7填充，密钥错误或文件被篡改时通常在此抛出IOException，并删除不完整的output。
+     */
+    public long decryptTo(Path output) throws IOException {
+        checkDistinct(file, output);
+        try {
+            return decryptChunks(output);
+        } catch (IOException | RuntimeException e) {
+            deleteAfterFailure(output, e);
+            throw e;
+        }
+    }
+
+    private long decryptChunks(Path output) throws IOException {
+        int chunkCount = chunkOffsets.length;
+        try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            SAESParallel.forEachChunk(pool, 0, chunkCount, 1, (from, to) -> {
+                byte[] buffer = new byte[chunkBytes + SAESPadding.BLOCK_BYTES];
+                for (int i = (int) from; i < to; i++) {
+                    int plainLen = chunkPlaintextLength(i);
+                    int cipherLen = i == chunkCount - 1 ? SAESPadding.paddedLength(plainLen) : plainLen;
+                    try {
+                        readFully(channel, ByteBuffer.wrap(buffer, 0, cipherLen), chunkOffsets[i]);
+                        SAESCore.decryptCBC(cipher, buffer, 0, buffer, 0, cipherLen, chunkIv(cipher, nonce, i));
+                        if (i == chunkCount - 1 && SAESPadding.unpaddedLength(buffer, 0, cipherLen) != plainLen) {
+                            throw new IOException("PKCS#7填充无效（密钥错误或文件被篡改）");
+                        }
+                        writeFully(out, ByteBuffer.wrap(buffer, 0, plainLen), (long) i * chunkBytes);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return plaintextLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // 解密第chunk块明文的[begin, finish)写入out[outOff..]：只读取覆盖该区间的分组及其前一个密文分组
+    private void readRange(int chunk, int begin, int finish, byte[] out, int outOff) throws IOException {
+        int firstBlock = begin / 2;
+        int endBlock = (finish + 1) / 2;
+        int readFrom = firstBlock == 0 ? 0 : 2 * (firstBlock - 1);
+        byte[] buffer = new byte[2 * endBlock - readFrom];
+        readFully(channel, ByteBuffer.wrap(buffer), chunkOffsets[chunk] + readFrom);
+        int dataOff = firstBlock == 0 ? 0 : 2;
+        int iv16 = firstBlock == 0 ? chunkIv(cipher, nonce, chunk) : SAESCore.readBlock(buffer, 0);
+        SAESCore.decryptCBC(cipher, buffer, dataOff, buffer, dataOff, buffer.length - dataOff, iv16);
+        System.arraycopy(buffer, dataOff + begin - 2 * firstBlock, out, outOff, finish - begin);
+    }
+
+    private static void checkDistinct(Path input, Path output) throws IOException {
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            throw new IOException("输入与输出不能是同一文件：" + output);
+        }
+    }
+
+    // 失败时删除不完整的输出文件，删除失败作为被抑制的异常附加到原异常上
+    private static void deleteAfterFailure(Path output, Exception failure) {
+        try {
+            Files.deleteIfExists(output);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private int chunkPlaintextLength(int chunk) {
+        return (int) Math.min(chunkBytes, plaintextLength - (long) chunk * chunkBytes);
+    }
+
+    // 第chunk块的IV：用密钥加密由nonce与块序号混合出的16位值，不知道密钥就无法预测
+    static int chunkIv(SAESBlockCipher cipher, long nonce, int chunk) {
+        long z = nonce + (chunk + 1L) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return cipher.encryptBlock((int) z & 0xFFFF);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position() - start);
+            if (n < 0) throw new IOException("文件意外结束");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position() - start);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,420 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 面向字节的S-AES核心接口
+ * 每2字节一个分组，高字节在前。批量方法直接在byte[]或ByteBuffer的
+ * [off, off+len)区间上读写分组，in与out可为同一数组（就地处理），不生成中间String或int[]分组数组；
+ * ByteBuffer使用绝对下标读写，不改变position，可直接处理直接缓冲区或其slice。
+ * 带Padded的方法使用SAESPadding的PKCS#7填充，任意长度、任意字节的数据都能无损还原。
+ * 密钥以字节数组传入：16位密钥2字节，32位密钥（K1+K2）4字节，48位密钥（K1+K2+K3）6字节。
+ * 单分组与ASCII/CBC便捷方法供GUI使用，内部同样走批量路径。
+ */
+public final class SAESCore {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private SAESCore() {
+    }
+
+
+    // ECB批量加密：in[inOff..inOff+len) → out[outOff..outOff+len)，len须为偶数
+    public static void encrypt(SAESBlockCipher cipher, byte[] in, int inOff, byte[] out, int outOff, int len) {
+        checkBlockRange(in.length, inOff, len);
+        checkBlockRange(out.length, outOff, len);
+        for (int i = 0; i < len; i += 2) {
+            writeBlock(out, outOff + i, cipher.encryptBlock(readBlock(in, inOff + i)));
+        }
+    }
+
+    // ECB批量解密
+    public static void decrypt(SAESBlockCipher cipher, byte[] in, int inOff, byte[] out, int outOff, int len) {
+        checkBlockRange(in.length, inOff, len);
+        checkBlockRange(out.length, outOff, len);
+        for (int i = 0; i < len; i += 2) {
+            writeBlock(out, outOff + i, cipher.decryptBlock(readBlock(in, inOff + i)));
+        }
+    }
+
+    // ECB就地加密buffer[off..off+len)（绝对下标）
+    public static void encrypt(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len) {
+        checkBlockRange(buffer.limit(), off, len);
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset() + off;
+            encrypt(cipher, buffer.array(), base, buffer.array(), base, len);
+            return;
+        }
+        for (int i = off; i < off + len; i += 2) {
+            writeBlock(buffer, i, cipher.encryptBlock(readBlock(buffer, i)));
+        }
+    }
+
+    // ECB就地解密buffer[off..off+len)（绝对下标）
+    public static void decrypt(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len) {
+        checkBlockRange(buffer.limit(), off, len);
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset() + off;
+            decrypt(cipher, buffer.array(), base, buffer.array(), base, len);
+            return;
+        }
+        for (int i = off; i < off + len; i += 2) {
+            writeBlock(buffer, i, cipher.decryptBlock(readBlock(buffer, i)));
+        }
+    }
+
+
+    // CBC批量加密（顺序），len须为偶数；返回最后一个密文分组，便于分段续接
+    public static int encryptCBC(SAESBlockCipher cipher, byte[] in, int inOff, byte[] out, int outOff, int len,
+                                 int iv16) {
+        checkBlockRange(in.length, inOff, len);
+        checkBlockRange(out.length, outOff, len);
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = 0; i < len; i += 2) {
+            prevBlock = cipher.encryptBlock(readBlock(in, inOff + i) ^ prevBlock);
+            writeBlock(out, outOff + i, prevBlock);
+        }
+        return prevBlock;
+    }
+
+    // CBC批量解密（顺序）；in与out可为同一数组；返回最后一个密文分组。大数据量可用SAESCbc并行解密
+    public static int decryptCBC(SAESBlockCipher cipher, byte[] in, int inOff, byte[] out, int outOff, int len,
+                                 int iv16) {
+        checkBlockRange(in.length, inOff, len);
+        checkBlockRange(out.length, outOff, len);
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = 0; i < len; i += 2) {
+            // 先读出密文再写明文，就地解密时也不会丢失下一分组需要的C(i-1)
+            int cipherBlock = readBlock(in, inOff + i);
+            writeBlock(out, outOff + i, cipher.decryptBlock(cipherBlock) ^ prevBlock);
+            prevBlock = cipherBlock;
+        }
+        return prevBlock;
+    }
+
+    // CBC就地加密buffer[off..off+len)（绝对下标），返回最后一个密文分组
+    public static int encryptCBC(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len, int iv16) {
+        checkBlockRange(buffer.limit(), off, len);
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset() + off;
+            return encryptCBC(cipher, buffer.array(), base, buffer.array(), base, len, iv16);
+        }
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = off; i < off + len; i += 2) {
+            prevBlock = cipher.encryptBlock(readBlock(buffer, i) ^ prevBlock);
+            writeBlock(buffer, i, prevBlock);
+        }
+        return prevBlock;
+    }
+
+    // CBC就地解密buffer[off..off+len)（绝对下标），返回最后一个密文分组
+    public static int decryptCBC(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len, int iv16) {
+        checkBlockRange(buffer.limit(), off, len);
+        if (buffer.hasArray()) {
+            int base = buffer.arrayOffset() + off;
+            return decryptCBC(cipher, buffer.array(), base, buffer.array(), base, len, iv16);
+        }
+        int prevBlock = iv16 & 0xFFFF;
+        for (int i = off; i < off + len; i += 2) {
+            int cipherBlock = readBlock(buffer, i);
+            writeBlock(buffer, i, cipher.decryptBlock(cipherBlock) ^ prevBlock);
+            prevBlock = cipherBlock;
+        }
+        return prevBlock;
+    }
+
+
+    /**
+     * ECB就地加密并填充：data[off..off+len)为明文，填充后的密文写回原处
+     * 调用方须在明文后预留最多2字节的空间；返回密文长度。
+     */
+    public static int encryptPadded(SAESBlockCipher cipher, byte[] data, int off, int len) {
+        int padded = SAESPadding.pad(data, off, len);
+        encrypt(cipher, data, off, data, off, padded);
+        return padded;
+    }
+
+    // ECB就地解密并去除填充，返回明文长度；填充无效时抛出IllegalArgumentException
+    public static int decryptPadded(SAESBlockCipher cipher, byte[] data, int off, int len) {
+        decrypt(cipher, data, off, data, off, len);
+        return SAESPadding.unpad(data, off, len);
+    }
+
+    // 同encryptPadded(SAESBlockCipher, byte[], int, int)，buffer使用绝对下标
+    public static int encryptPadded(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len) {
+        int padded = SAESPadding.pad(buffer, off, len);
+        encrypt(cipher, buffer, off, padded);
+        return padded;
+    }
+
+    public static int decryptPadded(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len) {
+        decrypt(cipher, buffer, off, len);
+        return SAESPadding.unpad(buffer, off, len);
+    }
+
+    // CBC就地加密并填充，返回密文长度（调用方须预留最多2字节的空间）
+    public static int encryptCBCPadded(SAESBlockCipher cipher, byte[] data, int off, int len, int iv16) {
+        int padded = SAESPadding.pad(data, off, len);
+        encryptCBC(cipher, data, off, data, off, padded, iv16);
+        return padded;
+    }
+
+    // CBC就地解密并去除填充，返回明文长度
+    public static int decryptCBCPadded(SAESBlockCipher cipher, byte[] data, int off, int len, int iv16) {
+        decryptCBC(cipher, data, off, data, off, len, iv16);
+        return SAESPadding.unpad(data, off, len);
+    }
+
+    public static int encryptCBCPadded(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len, int iv16) {
+        int padded = SAESPadding.pad(buffer, off, len);
+        encryptCBC(cipher, buffer, off, padded, iv16);
+        return padded;
+    }
+
+    public static int decryptCBCPadded(SAESBlockCipher cipher, ByteBuffer buffer, int off, int len, int iv16) {
+        decryptCBC(cipher, buffer, off, len, iv16);
+        return SAESPadding.unpad(buffer, off, len);
+    }
+
+    // ECB加密并填充，返回新数组
+    public static byte[] encryptPadded(SAESBlockCipher cipher, byte[] plain) {
+        byte[] out = Arrays.copyOf(plain, SAESPadding.paddedLength(plain.length));
+        encryptPadded(cipher, out, 0, plain.length);
+        return out;
+    }
+
+    // ECB解密并去除填充，返回新数组
+    public static byte[] decryptPadded(SAESBlockCipher cipher, byte[] ciphertext) {
+        byte[] out = ciphertext.clone();
+        return Arrays.copyOf(out, decryptPadded(cipher, out, 0, out.length));
+    }
+
+    // CBC加密并填充，返回新数组（不含IV）
+    public static byte[] encryptCBCPadded(SAESBlockCipher cipher, byte[] plain, int iv16) {
+        byte[] out = Arrays.copyOf(plain, SAESPadding.paddedLength(plain.length));
+        encryptCBCPadded(cipher, out, 0, plain.length, iv16);
+        return out;
+    }
+
+    // CBC解密并去除填充，返回新数组
+    public static byte[] decryptCBCPadded(SAESBlockCipher cipher, byte[] ciphertext, int iv16) {
+        byte[] out = ciphertext.clone();
+        return Arrays.copyOf(out, decryptCBCPadded(cipher, out, 0, out.length, iv16));
+    }
+
+
+    // 单分组加密：2字节明文、2字节密钥
+    public static byte[] encrypt16(byte[] plain, byte[] key) {
+        return processBlock(new SAESCipher(readKey16(key)), plain, true);
+    }
+
+    // 单分组解密
+    public static byte[] decrypt16(byte[] cipher, byte[] key) {
+        return processBlock(new SAESCipher(readKey16(key)), cipher, false);
+    }
+
+    // 双重加密：4字节密钥（K1+K2）
+    public static byte[] encryptDouble(byte[] plain, byte[] key32) {
+        return processBlock(SAESMultiCipher.doubleCipher(readKey32(key32)), plain, true);
+    }
+
+    // 双重解密
+    public static byte[] decryptDouble(byte[] cipher, byte[] key32) {
+        return processBlock(SAESMultiCipher.doubleCipher(readKey32(key32)), cipher, false);
+    }
+
+    // 三重加密（模式1）：4字节密钥（K1+K2），与SAES.tripleEncrypt一致
+    public static byte[] encryptTripleMode1(byte[] plain, byte[] key32) {
+        return processBlock(SAESMultiCipher.tripleCipher(readKey32(key32)), plain, true);
+    }
+
+    // 三重解密（模式1）
+    public static byte[] decryptTripleMode1(byte[] cipher, byte[] key32) {
+        return processBlock(SAESMultiCipher.tripleCipher(readKey32(key32)), cipher, false);
+    }
+
+    // 三重加密（模式2）：6字节密钥（K1+K2+K3），与SAES.tripleEncryptMode2一致
+    public static byte[] encryptTripleMode2(byte[] plain, byte[] key48) {
+        return processBlock(SAESMultiCipher.tripleCipher3(readKey(key48, 6)), plain, true);
+    }
+
+    // 三重解密（模式2）
+    public static byte[] decryptTripleMode2(byte[] cipher, byte[] key48) {
+        return processBlock(SAESMultiCipher.tripleCipher3(readKey(key48, 6)), cipher, false);
+    }
+
+
+    // ASCII字符串加密：字符直接写入字节数组，PKCS#7填充
+    public static byte[] encryptASCII(String plaintext, byte[] key) {
+        byte[] data = new byte[SAESPadding.paddedLength(plaintext.length())];
+        for (int i = 0; i < plaintext.length(); i++) {
+            char c = plaintext.charAt(i);
+            if (c > 0x7F) throw new IllegalArgumentException("第" + (i + 1) + "个字符不是ASCII字符：" + c);
+            data[i] = (byte) c;
+        }
+        SAESPadding.pad(data, 0, plaintext.length());
+        bulkEcb(key).encrypt(data, 0, data, 0, data.length);
+        return data;
+    }
+
+    // ASCII字符串解密：去除PKCS#7填充
+    public static String decryptASCII(byte[] ciphertext, byte[] key) {
+        byte[] data = ciphertext.clone();
+        bulkEcb(key).decrypt(data, 0, data, 0, data.length);
+        int len = SAESPadding.unpad(data, 0, data.length);
+        return new String(data, 0, len, StandardCharsets.US_ASCII);
+    }
+
+    // 字符串等批量路径使用SAESEngines选择的引擎（-Dsaes.engine），由SAESEcb按批调用
+    private static SAESEcb bulkEcb(byte[] key) {
+        return new SAESEcb(SAESEngines.create(readKey16(key)), ForkJoinPool.commonPool());
+    }
+
+    // CBC加密：返回IV（2字节）+ 密文，PKCS#7填充
+    public static byte[] encryptCBC(byte[] plain, byte[] key, byte[] iv) {
+        if (iv.length != 2) throw new IllegalArgumentException("IV必须为2字节（16位）：" + iv.length);
+        int iv16 = readBlock(iv, 0);
+        byte[] out = new byte[2 + SAESPadding.paddedLength(plain.length)];
+        writeBlock(out, 0, iv16);
+        System.arraycopy(plain, 0, out, 2, plain.length);
+        encryptCBCPadded(SAESEngines.create(readKey16(key)), out, 2, plain.length, iv16);
+        return out;
+    }
+
+    // CBC解密：输入为IV（前2字节）+ 密文，去除PKCS#7填充
+    public static byte[] decryptCBC(byte[] cipherWithIv, byte[] key) {
+        if (cipherWithIv.length < 4 || (cipherWithIv.length & 1) != 0) {
+            throw new IllegalArgumentException("CBC密文（含IV）长度必须为不小于4的偶数：" + cipherWithIv.length);
+        }
+        byte[] plain = new byte[cipherWithIv.length - 2];
+        new SAESCbc(SAESEngines.create(readKey16(key)), ForkJoinPool.commonPool()).decrypt(cipherWithIv, 2, plain, 0, plain.length, readBlock(cipherWithIv, 0));
+        return Arrays.copyOf(plain, SAESPadding.unpad(plain, 0, plain.length));
+    }
+
+
+    /**
+     * 中间相遇攻击：plain与cipher为等长的一个或多个分组（每2字节一对明密文）
+     * 返回与全部明密文对一致的最小32位密钥（4字节，K1+K2），找不到返回null。
+     */
+    public static byte[] meetInTheMiddle(byte[] plain, byte[] cipher) {
+        if (plain.length != cipher.length || plain.length == 0 || (plain.length & 1) != 0) {
+            throw new IllegalArgumentException("明文与密文必须为等长的若干个2字节分组");
+        }
+        int[] plaintexts16 = new int[plain.length / 2];
+        int[] ciphertexts16 = new int[plaintexts16.length];
+        for (int i = 0; i < plaintexts16.length; i++) {
+            plaintexts16[i] = readBlock(plain, 2 * i);
+            ciphertexts16[i] = readBlock(cipher, 2 * i);
+        }
+        SAESKeySet keys = SAESMitm.findKeys(plaintexts16, ciphertexts16);
+        if (keys.isEmpty()) return null;
+        int key32 = keys.get(0);
+        return new byte[]{(byte) (key32 >>> 24), (byte) (key32 >>> 16), (byte) (key32 >>> 8), (byte) key32};
+    }
+
+
+    // 十六进制字符串转字节数组（忽略空白字符，大小写均可）
+    public static byte[] hexToBytes(String hex) {
+        int digits = 0;
+        for (int i = 0; i < hex.length(); i++) {
+            if (!Character.isWhitespace(hex.charAt(i))) digits++;
+        }
+        if ((digits & 1) != 0) throw new IllegalArgumentException("十六进制字符数必须为偶数：" + digits);
+        byte[] out = new byte[digits / 2];
+        int pos = 0;
+        int high = -1;
+        for (int i = 0; i < hex.length(); i++) {
+            char c = hex.charAt(i);
+            if (Character.isWhitespace(c)) continue;
+            int value = Character.digit(c, 16);
+            if (value < 0) throw new IllegalArgumentException("非法的十六进制字符：" + c);
+            if (high < 0) {
+                high = value;
+            } else {
+                out[pos++] = (byte) ((high << 4) | value);
+                high = -1;
+            }
+        }
+        return out;
+    }
+
+    // 字节数组转十六进制字符串（大写，无分隔符）
+    public static String bytesToHex(byte[] data) {
+        return bytesToHex(data, 0, data.length);
+    }
+
+    // data[off..off+len)转十六进制字符串
+    public static String bytesToHex(byte[] data, int off, int len) {
+        checkRange(data.length, off, len);
+        char[] chars = new char[2 * len];
+        for (int i = 0; i < len; i++) {
+            int b = data[off + i] & 0xFF;
+            chars[2 * i] = HEX_DIGITS[b >>> 4];
+            chars[2 * i + 1] = HEX_DIGITS[b & 0x0F];
+        }
+        return new String(chars);
+    }
+
+
+    // 第pos、pos+1个字节组成的分组（高字节在前）
+    static int readBlock(byte[] data, int pos) {
+        return ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+    }
+
+    static void writeBlock(byte[] data, int pos, int block16) {
+        data[pos] = (byte) (block16 >>> 8);
+        data[pos + 1] = (byte) block16;
+    }
+
+    static int readBlock(ByteBuffer buffer, int pos) {
+        return ((buffer.get(pos) & 0xFF) << 8) | (buffer.get(pos + 1) & 0xFF);
+    }
+
+    static void writeBlock(ByteBuffer buffer, int pos, int block16) {
+        buffer.put(pos, (byte) (block16 >>> 8));
+        buffer.put(pos + 1, (byte) block16);
+    }
+
+    // 单分组便捷方法：校验长度后在新数组上就地处理
+    private static byte[] processBlock(SAESBlockCipher cipher, byte[] block, boolean encrypt) {
+        if (block.length != 2) throw new IllegalArgumentException("分组必须为2字节（16位）：" + block.length);
+        byte[] out = block.clone();
+        if (encrypt) {
+            encrypt(cipher, out, 0, out, 0, 2);
+        } else {
+            decrypt(cipher, out, 0, out, 0, 2);
+        }
+        return out;
+    }
+
+    private static int readKey16(byte[] key) {
+        return (int) readKey(key, 2);
+    }
+
+    private static int readKey32(byte[] key) {
+        return (int) readKey(key, 4);
+    }
+
+    // 按高字节在前把bytes个字节的密钥读成整数
+    private static long readKey(byte[] key, int bytes) {
+        if (key == null || key.length != bytes) {
+            throw new IllegalArgumentException("密钥必须为" + bytes + "字节（" + 8 * bytes + "位）");
+        }
+        long value = 0;
+        for (byte b : key) value = (value << 8) | (b & 0xFF);
+        return value;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int len) {
+        if (offset < 0 || len < 0 || offset > arrayLength - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + offset + "，len=" + len);
+        }
+    }
+
+    private static void checkBlockRange(int arrayLength, int offset, int len) {
+        checkRange(arrayLength, offset, len);
+        if ((len & 1) != 0) {
+            throw new IllegalArgumentException("数据长度必须为2字节的整数倍：" + len);
+        }
+    }
+}
\ No newline at end of file
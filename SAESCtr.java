@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * CTR（计数器）模式
+ * 第i个分组的密钥流为E(K, (IV + i) mod 2^16)，与数据异或即得密文，加密与解密是同一运算。
+ * 每个分组的密钥流只依赖其序号，因此可以按区间分块在ForkJoinPool中并行，
+ * 也可以从任意字节偏移开始处理（随机访问），无需先处理前面的数据。
+ * 字节序与SAESCore一致：第2i个字节为第i个分组的高8位，第2i+1个字节为低8位。
+ * 注意：16位分组下计数器每65536个分组（128KB）循环一次，超过该长度的数据会重复使用密钥流。
+ * 对象不可变，可在多线程间共享。
+ */
+public final class SAESCtr {
+    // 每个并行分块处理的字节数（偶数）
+    private static final int CHUNK_BYTES = 16 * 1024;
+    // 每次批量生成的密钥流分组数
+    private static final int KEYSTREAM_BLOCKS = 256;
+    // 文件通道每次读写的窗口大小
+    private static final int WINDOW_BYTES = 1 << 20;
+
+    private final SAESBlockCipher cipher;
+    private final int iv16;
+    private final ForkJoinPool pool;
+
+    public SAESCtr(int key16, int iv16) {
+        this(new SAESCipher(key16), iv16, ForkJoinPool.commonPool());
+    }
+
+    // cipher可为任意批量引擎（如SAESEngines.create(key)）
+    public SAESCtr(SAESBlockCipher cipher, int iv16, ForkJoinPool pool) {
+        this.cipher = cipher;
+        this.iv16 = iv16 & 0xFFFF;
+        this.pool = pool;
+    }
+
+    public int getIv() {
+        return iv16;
+    }
+
+    // 第blockIndex个分组的密钥流
+    public int keystreamBlock(long blockIndex) {
+        return cipher.encryptBlock((int) ((iv16 + blockIndex) & 0xFFFF));
+    }
+
+    // 加密或解密整个数组（从流的起点开始），返回新数组
+    public byte[] process(byte[] data) {
+        byte[] out = new byte[data.length];
+        process(data, 0, out, 0, data.length, 0);
+        return out;
+    }
+
+    /**
+     * 处理in[inOff..inOff+len)，这段数据位于整个流的第streamOffset个字节处，结果写入out[outOff..]
+     * in与out可为同一数组（就地处理）；streamOffset可为奇数。
+     */
+    public void process(byte[] in, int inOff, byte[] out, int outOff, int len, long streamOffset) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        SAESParallel.forEachChunk(pool, 0, len, CHUNK_BYTES, (from, to) ->
+                xorRange(in, inOff + (int) from, out, outOff + (int) from, (int) (to - from), streamOffset + from));
+    }
+
+    /**
+     * 处理in的剩余字节并写入out，这段数据位于流的第streamOffset个字节处
+     * 处理后两个缓冲区的position都前进相应字节数；in与out可为同一缓冲区。
+     */
+    public void process(ByteBuffer in, ByteBuffer out, long streamOffset) {
+        int len = in.remaining();
+        if (out.remaining() < len) throw new IllegalArgumentException("输出缓冲区空间不足");
+        if (in.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            process(in.array(), in.arrayOffset() + in.position(), out.array(), out.arrayOffset() + out.position(),
+                    len, streamOffset);
+        } else {
+            int inBase = in.position();
+            int outBase = out.position();
+            SAESParallel.forEachChunk(pool, 0, len, CHUNK_BYTES, (from, to) -> {
+                byte[] buf = new byte[(int) (to - from)];
+                for (int i = 0; i < buf.length; i++) buf[i] = in.get(inBase + (int) from + i);
+                xorRange(buf, 0, buf, 0, buf.length, streamOffset + from);
+                for (int i = 0; i < buf.length; i++) out.put(outBase + (int) from + i, buf[i]);
+            });
+        }
+        in.position(in.position() + len);
+        out.position(out.position() + len);
+    }
+
+    /**
+     * 随机访问处理文件：把in中[position, position + length)的字节处理后写到out的相同位置
+     * 文件偏移即流偏移，因此可以只解密文件中间的一段；in与out可为同一通道（就地处理）。
+     * 按窗口读入、并行处理、写回，堆内存占用与文件大小无关。返回实际处理的字节数（遇到文件末尾时可能更少）。
+     */
+    public long process(FileChannel in, FileChannel out, long position, long length) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate((int) Math.min(WINDOW_BYTES, Math.max(length, 2)));
+        long done = 0;
+        while (done < length) {
+            window.clear();
+            window.limit((int) Math.min(window.capacity(), length - done));
+            int read = readFully(in, window, position + done);
+            if (read <= 0) break;
+            window.flip();
+            process(window.array(), 0, window.array(), 0, read, position + done);
+            while (window.hasRemaining()) {
+                out.write(window, position + done + window.position());
+            }
+            done += read;
+        }
+        return done;
+    }
+
+    // 单线程处理一段连续字节：先补齐奇数起点，再按分组批量生成密钥流
+    private void xorRange(byte[] in, int inOff, byte[] out, int outOff, int len, long streamOffset) {
+        int i = 0;
+        if ((streamOffset & 1) != 0 && len > 0) {
+            out[outOff] = (byte) (in[inOff] ^ keystreamBlock(streamOffset >>> 1));
+            i = 1;
+        }
+        int[] counters = new int[KEYSTREAM_BLOCKS];
+        int[] keystream = new int[KEYSTREAM_BLOCKS];
+        while (i < len) {
+            long block = (streamOffset + i) >>> 1;
+            int blocks = Math.min(KEYSTREAM_BLOCKS, (len - i + 1) >>> 1);
+            for (int b = 0; b < blocks; b++) {
+                counters[b] = (int) ((iv16 + block + b) & 0xFFFF);
+            }
+            cipher.encryptBlocks(counters, 0, keystream, 0, blocks);
+            for (int b = 0; b < blocks && i < len; b++) {
+                int ks = keystream[b];
+                out[outOff + i] = (byte) (in[inOff + i] ^ (ks >>> 8));
+                if (++i < len) {
+                    out[outOff + i] = (byte) (in[inOff + i] ^ ks);
+                    i++;
+                }
+            }
+        }
+    }
+
+    // 从position开始读满buffer或读到文件末尾，返回读到的字节数
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + total);
+            if (n < 0) break;
+            total += n;
+        }
+        return total;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int len) {
+        if (offset < 0 || len < 0 || offset > arrayLength - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + offset + "，len=" + len);
+        }
+    }
+}
\ No newline at end of file
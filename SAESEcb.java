@@ -0,0 +1,272 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ECB模式的并行批量加解密
+ * 各分组相互独立，按缓存大小的分块（8K个分组，int[]输入输出共64KB，可放进各核的L2）在ForkJoinPool中并行，
+ * 实际加速比取决于核数与内存带宽，可用main在目标机器上测量。
+ * 结果写入调用方提供的数组或缓冲区，in与out可为同一数组（就地处理）。
+ *
+ * 自适应阈值：数据量小于阈值时直接在调用线程顺序处理，避免Fork/Join的调度开销反而拖慢小数据。
+ * 顺序处理预计超过PARALLEL_MIN_NANOS才并行，每分组耗时取实际调用中观测到的最小值：每次顺序处理或
+ * 每个并行分块（不少于MIN_TIMED_BLOCKS个分组）都计时并更新，因此JIT编译前的慢速测量会随预热被逐步修正，
+ * 较慢的引擎（多重加密、位切片）阈值更低。尚无观测时使用INITIAL_THRESHOLD；pool只有1个工作线程时始终顺序处理。
+ * 观测值按引擎类型（多重加密再按模式区分）在所有实例间共享，像SAES.encryptStr这样每次调用都新建SAESEcb也能沿用。
+ */
+public final class SAESEcb {
+    // 每个并行分块处理的分组数
+    private static final int CHUNK_BLOCKS = 8 * 1024;
+    // 分块内每次批量处理的分组数（字节形式先拆成分组再批量调用引擎）
+    private static final int BATCH_BLOCKS = 256;
+    // 顺序处理预计耗时超过该值才值得并行
+    private static final long PARALLEL_MIN_NANOS = 200_000;
+    // 尚无耗时观测时的并行阈值（分组数），按查表引擎预热后约3ns/分组估算
+    private static final int INITIAL_THRESHOLD = 64 * 1024;
+    // 少于该分组数的调用不计时，避免计时误差和缓存冷启动影响观测值
+    private static final int MIN_TIMED_BLOCKS = 1024;
+    // 各引擎类型观测到的最小每分组耗时（皮秒），Long.MAX_VALUE表示尚无观测
+    private static final ConcurrentHashMap<Object, AtomicLong> BEST_PICOS = new ConcurrentHashMap<>();
+
+    private final SAESBlockCipher cipher;
+    private final ForkJoinPool pool;
+    // 调用方指定的并行阈值（分组数），0表示按观测值自适应
+    private final int fixedThreshold;
+    private final AtomicLong bestPicos;
+
+    public SAESEcb(int key16) {
+        this(new SAESCipher(key16), ForkJoinPool.commonPool());
+    }
+
+    // cipher可为任意批量引擎（如SAESEngines.create(key)）
+    public SAESEcb(SAESBlockCipher cipher, ForkJoinPool pool) {
+        this(cipher, pool, 0);
+    }
+
+    // 指定并行阈值（分组数）；parallelThreshold为0时按观测到的每分组耗时自适应
+    public SAESEcb(SAESBlockCipher cipher, ForkJoinPool pool, int parallelThreshold) {
+        if (parallelThreshold < 0) throw new IllegalArgumentException("并行阈值不能为负：" + parallelThreshold);
+        this.cipher = cipher;
+        this.pool = pool;
+        this.fixedThreshold = parallelThreshold;
+        this.bestPicos = BEST_PICOS.computeIfAbsent(engineType(cipher), type -> new AtomicLong(Long.MAX_VALUE));
+    }
+
+    // 当前并行阈值（分组数）
+    public int getParallelThreshold() {
+        if (fixedThreshold != 0) return fixedThreshold;
+        long picos = bestPicos.get();
+        if (picos == Long.MAX_VALUE) return INITIAL_THRESHOLD;
+        long threshold = (PARALLEL_MIN_NANOS * 1000 + picos - 1) / Math.max(1, picos);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(2L * CHUNK_BLOCKS, threshold));
+    }
+
+    // 每分组耗时相同的引擎归为一类：按类区分，多重加密再按模式区分
+    private static Object engineType(SAESBlockCipher cipher) {
+        return cipher instanceof SAESMultiCipher ? ((SAESMultiCipher) cipher).getMode() : cipher.getClass();
+    }
+
+
+    // 批量加密：in[inOff..inOff+len) → out[outOff..outOff+len)
+    public void encrypt(int[] in, int inOff, int[] out, int outOff, int len) {
+        process(in, inOff, out, outOff, len, true);
+    }
+
+    // 批量解密
+    public void decrypt(int[] in, int inOff, int[] out, int outOff, int len) {
+        process(in, inOff, out, outOff, len, false);
+    }
+
+    // 字节数组形式的批量加密（每2字节一个分组，高字节在前），len须为偶数
+    public void encrypt(byte[] in, int inOff, byte[] out, int outOff, int len) {
+        process(in, inOff, out, outOff, len, true);
+    }
+
+    // 字节数组形式的批量解密
+    public void decrypt(byte[] in, int inOff, byte[] out, int outOff, int len) {
+        process(in, inOff, out, outOff, len, false);
+    }
+
+    /**
+     * 加密in的剩余字节并写入out（长度须为偶数）
+     * 处理后两个缓冲区的position都前进相应字节数；in与out可为同一缓冲区。
+     */
+    public void encrypt(ByteBuffer in, ByteBuffer out) {
+        process(in, out, true);
+    }
+
+    public void decrypt(ByteBuffer in, ByteBuffer out) {
+        process(in, out, false);
+    }
+
+    // 加密并做PKCS#7填充，返回新数组
+    public byte[] encryptPadded(byte[] plain) {
+        byte[] out = Arrays.copyOf(plain, SAESPadding.paddedLength(plain.length));
+        SAESPadding.pad(out, 0, plain.length);
+        encrypt(out, 0, out, 0, out.length);
+        return out;
+    }
+
+    // 解密并去除PKCS#7填充，返回新数组；填充无效时抛出IllegalArgumentException
+    public byte[] decryptPadded(byte[] ciphertext) {
+        byte[] out = new byte[ciphertext.length];
+        decrypt(ciphertext, 0, out, 0, ciphertext.length);
+        return Arrays.copyOf(out, SAESPadding.unpad(out, 0, out.length));
+    }
+
+
+    private void process(int[] in, int inOff, int[] out, int outOff, int len, boolean encrypt) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        if (!isParallel(len)) {
+            timedBlocks(in, inOff, out, outOff, len, encrypt);
+            return;
+        }
+        SAESParallel.forEachChunk(pool, 0, len, CHUNK_BLOCKS, (from, to) ->
+                timedBlocks(in, inOff + (int) from, out, outOff + (int) from, (int) (to - from), encrypt));
+    }
+
+    private void process(byte[] in, int inOff, byte[] out, int outOff, int len, boolean encrypt) {
+        checkRange(in.length, inOff, len);
+        checkRange(out.length, outOff, len);
+        if ((len & 1) != 0) throw new IllegalArgumentException("ECB数据长度必须为2字节的整数倍：" + len);
+        int blocks = len / 2;
+        if (!isParallel(blocks)) {
+            processBytes(in, inOff, out, outOff, blocks, encrypt);
+            return;
+        }
+        SAESParallel.forEachChunk(pool, 0, blocks, CHUNK_BLOCKS, (from, to) ->
+                processBytes(in, inOff + 2 * (int) from, out, outOff + 2 * (int) from, (int) (to - from), encrypt));
+    }
+
+    private void process(ByteBuffer in, ByteBuffer out, boolean encrypt) {
+        int len = in.remaining();
+        if (out.remaining() < len) throw new IllegalArgumentException("输出缓冲区空间不足");
+        if ((len & 1) != 0) throw new IllegalArgumentException("ECB数据长度必须为2字节的整数倍：" + len);
+        if (in.hasArray() && out.hasArray() && !out.isReadOnly()) {
+            process(in.array(), in.arrayOffset() + in.position(), out.array(), out.arrayOffset() + out.position(),
+                    len, encrypt);
+        } else {
+            int inBase = in.position();
+            int outBase = out.position();
+            int blocks = len / 2;
+            SAESParallel.ChunkTask task = (from, to) -> {
+                int[] batch = new int[BATCH_BLOCKS];
+                for (int start = (int) from; start < to; start += BATCH_BLOCKS) {
+                    int n = (int) Math.min(BATCH_BLOCKS, to - start);
+                    for (int i = 0; i < n; i++) {
+                        batch[i] = SAESCore.readBlock(in, inBase + 2 * (start + i));
+                    }
+                    processBlocks(batch, 0, batch, 0, n, encrypt);
+                    for (int i = 0; i < n; i++) {
+                        SAESCore.writeBlock(out, outBase + 2 * (start + i), batch[i]);
+                    }
+                }
+            };
+            if (isParallel(blocks)) {
+                SAESParallel.forEachChunk(pool, 0, blocks, CHUNK_BLOCKS, task);
+            } else {
+                task.run(0, blocks);
+            }
+        }
+        in.position(in.position() + len);
+        out.position(out.position() + len);
+    }
+
+    // 不足两个分块或只有一个工作线程时不并行，否则与自适应阈值比较
+    private boolean isParallel(int blocks) {
+        return blocks >= 2 * CHUNK_BLOCKS && pool.getParallelism() > 1 && blocks >= getParallelThreshold();
+    }
+
+    private void timedBlocks(int[] in, int inOff, int[] out, int outOff, int len, boolean encrypt) {
+        long start = System.nanoTime();
+        processBlocks(in, inOff, out, outOff, len, encrypt);
+        record(len, System.nanoTime() - start);
+    }
+
+    private void processBlocks(int[] in, int inOff, int[] out, int outOff, int len, boolean encrypt) {
+        if (encrypt) {
+            cipher.encryptBlocks(in, inOff, out, outOff, len);
+        } else {
+            cipher.decryptBlocks(in, inOff, out, outOff, len);
+        }
+    }
+
+    // 按BATCH_BLOCKS拆成分组批量调用引擎，让位切片、向量等批量引擎也能发挥作用
+    private void processBytes(byte[] in, int inOff, byte[] out, int outOff, int blocks, boolean encrypt) {
+        long start = System.nanoTime();
+        processBytesUntimed(in, inOff, out, outOff, blocks, encrypt);
+        record(blocks, System.nanoTime() - start);
+    }
+
+    private void processBytesUntimed(byte[] in, int inOff, byte[] out, int outOff, int blocks, boolean encrypt) {
+        if (cipher instanceof SAESCipher) {
+            // 查表引擎逐分组处理本身就很快，直接在字节上读写，省去拆分组的拷贝
+            if (encrypt) {
+                SAESCore.encrypt(cipher, in, inOff, out, outOff, 2 * blocks);
+            } else {
+                SAESCore.decrypt(cipher, in, inOff, out, outOff, 2 * blocks);
+            }
+            return;
+        }
+        int[] batch = new int[Math.min(BATCH_BLOCKS, blocks)];
+        for (int start = 0; start < blocks; start += BATCH_BLOCKS) {
+            int n = Math.min(BATCH_BLOCKS, blocks - start);
+            for (int i = 0; i < n; i++) {
+                batch[i] = SAESCore.readBlock(in, inOff + 2 * (start + i));
+            }
+            processBlocks(batch, 0, batch, 0, n, encrypt);
+            for (int i = 0; i < n; i++) {
+                SAESCore.writeBlock(out, outOff + 2 * (start + i), batch[i]);
+            }
+        }
+    }
+
+    // 用一次处理的耗时更新该引擎类型的最小每分组耗时
+    private void record(int blocks, long nanos) {
+        if (blocks < MIN_TIMED_BLOCKS || fixedThreshold != 0) return;
+        long picos = nanos * 1000 / blocks;
+        if (picos < bestPicos.get()) bestPicos.accumulateAndGet(picos, Math::min);
+    }
+
+    /**
+     * 并行加密测速：用1、2、4…个工作线程（直到可用核数）的ForkJoinPool加密同一组数据，输出耗时与加速比
+     * 用法：java SAESEcb [分组数，默认2^22]
+     */
+    public static void main(String[] args) {
+        int blocks = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 22;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int[] plain = new int[blocks];
+        for (int i = 0; i < blocks; i++) plain[i] = i * 0x9E37 & 0xFFFF;
+        int[] cipherText = new int[blocks];
+        int[] out = new int[blocks];
+        SAESCipher cipher = new SAESCipher(0x2D55);
+        System.out.println("可用核数：" + cores + "，分组数：" + blocks);
+        double base = 0;
+        for (int threads = 1; ; threads = Math.min(2 * threads, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            // 阈值设为最小的两个分块，强制按分块并行，只比较线程数的影响
+            SAESEcb ecb = new SAESEcb(cipher, pool, 2 * CHUNK_BLOCKS);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 10; round++) {
+                long start = System.nanoTime();
+                ecb.encrypt(plain, 0, cipherText, 0, blocks);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            ecb.decrypt(cipherText, 0, out, 0, blocks);
+            pool.shutdown();
+            if (threads == 1) base = best;
+            System.out.printf("%d线程：%.2fns/分组，加速比%.2f%s%n", threads, (double) best / blocks, base / best,
+                    Arrays.equals(plain, out) ? "" : "（结果错误）");
+            if (threads == cores) break;
+        }
+    }
+
+    private static void checkRange(int arrayLength, int offset, int len) {
+        if (offset < 0 || len < 0 || offset > arrayLength - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + offset + "，len=" + len);
+        }
+    }
+}
\ No newline at end of file
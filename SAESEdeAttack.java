@@ -0,0 +1,280 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 两密钥EDE三重加密（SAES.tripleEncrypt：C = E(K2, D(K1, E(K2, P)))）的密钥恢复引擎
+ * 32位密钥格式与tripleEncrypt一致：K1为高16位，K2为低16位。全程使用基本类型数组，按密钥区间分块并行。
+ *
+ * 选择明文攻击（Merkle–Hellman）：若E(K2, P) = 0，则C = E(K2, D(K1, 0))，即D(K2, C) = D(K1, 0)。
+ * 预先把全部K1的D(K1, 0)按值建索引；对每个K2选明文P = D(K2, 0)向加密方查询C，
+ * 再用D(K2, C)在索引中O(1)找出K1。时间和内存都是2^16级，共约2^16次选择明文查询。
+ *
+ * 已知明文攻击：只有若干对(P, C)时无法固定中间值，只能遍历2^32个密钥，
+ * 但对每个K2预先算好E(K2, P0)和D(K2, C0)，内层只剩一次查表解密D(K1, ·)与比较，再用其余明文对过滤。
+ */
+public final class SAESEdeAttack {
+    private static final int KEY_COUNT = SAESMitmIndex.KEY_COUNT;
+    // 选择明文攻击每个并行分块处理的K2数
+    private static final int CHUNK_KEYS = 1024;
+    // 已知明文攻击每个并行分块处理的K1数（每个K1内层遍历全部K2）
+    private static final int CHUNK_OUTER_KEYS = 16;
+
+    private SAESEdeAttack() {
+    }
+
+    /**
+     * 选择明文攻击：返回与加密方全部查询结果一致的32位密钥
+     * oracle为加密方（输入16位明文，返回EDE密文），每个不同的明文只查询一次，且在调用线程中顺序查询。
+     * listener和token均可为null。
+     */
+    public static SAESKeySet chosenPlaintext(IntUnaryOperator oracle, ForkJoinPool pool,
+                                             SAESProgressListener listener, SAESCancellationToken token) {
+        long[] roundKeys = SAESMitm.allRoundKeys();
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, 2L * KEY_COUNT);
+
+        // 索引：中间值D(K1, 0) → K1
+        tracker.setPhase("预计算D(K1, 0)");
+        int[] table = new int[KEY_COUNT];
+        for (int k1 = 0; k1 < KEY_COUNT; k1++) {
+            table[k1] = SAESTables.decrypt(0, roundKeys[k1]);
+        }
+        SAESMitmIndex index = SAESMitmIndex.fromForward(0, table);
+
+        // 选择明文P = D(K2, 0)并查询，结果存入码本（-1表示未查询）
+        tracker.setPhase("查询选择明文");
+        int[] chosen = new int[KEY_COUNT];
+        int[] codebook = new int[KEY_COUNT];
+        int[] queried = new int[KEY_COUNT];
+        int queryCount = 0;
+        Arrays.fill(codebook, -1);
+        for (int k2 = 0; k2 < KEY_COUNT; k2++) {
+            int p = SAESTables.decrypt(0, roundKeys[k2]);
+            chosen[k2] = p;
+            if (codebook[p] < 0) {
+                codebook[p] = oracle.applyAsInt(p) & 0xFFFF;
+                queried[queryCount++] = p;
+            }
+            if ((k2 & (CHUNK_KEYS - 1)) == CHUNK_KEYS - 1) {
+                tracker.checkCancelled();
+                tracker.advance(CHUNK_KEYS, 0);
+            }
+        }
+        int pairCount = queryCount;
+
+        // 对每个K2查索引，并用全部已查询的明密文对验证候选
+        tracker.setPhase("匹配D(K2, C) = D(K1, 0)");
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, 0, KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            tracker.checkCancelled();
+            SAESKeySet.Builder local = new SAESKeySet.Builder();
+            for (int k2 = (int) from; k2 < to; k2++) {
+                long roundKeys2 = roundKeys[k2];
+                int mid = SAESTables.decrypt(codebook[chosen[k2]], roundKeys2);
+                int end = index.bucketEnd(mid);
+                for (int i = index.bucketStart(mid); i < end; i++) {
+                    int k1 = index.keyAt(i);
+                    if (matchesCodebook(roundKeys[k1], roundKeys2, queried, pairCount, codebook)) {
+                        local.add((k1 << 16) | k2);
+                    }
+                }
+            }
+            synchronized (result) {
+                result.addAll(local);
+            }
+            tracker.advance(to - from, local.size());
+        });
+        return result.build();
+    }
+
+    /**
+     * 已知明文攻击：返回与全部N对明密文一致的32位密钥（遍历2^32个密钥）
+     * listener和token均可为null。
+     */
+    public static SAESKeySet knownPlaintext(int[] plaintexts16, int[] ciphertexts16, ForkJoinPool pool,
+                                            SAESProgressListener listener, SAESCancellationToken token) {
+        return knownPlaintext(plaintexts16, ciphertexts16, 0, KEY_COUNT, pool, listener, token);
+    }
+
+    // 只遍历K1 ∈ [k1From, k1To)的已知明文攻击，用于分段执行或抽样计时
+    static SAESKeySet knownPlaintext(int[] plaintexts16, int[] ciphertexts16, int k1From, int k1To,
+                                     ForkJoinPool pool, SAESProgressListener listener, SAESCancellationToken token) {
+        SAESMitm.checkPairs(plaintexts16, ciphertexts16);
+        long[] roundKeys = SAESMitm.allRoundKeys();
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, (long) (k1To - k1From) * KEY_COUNT);
+        tracker.setPhase("遍历(K1, K2)");
+
+        // outer[K2] = E(K2, P0)，inner[K2] = D(K2, C0)；正确密钥满足D(K1, outer[K2]) = inner[K2]
+        char[] outer = new char[KEY_COUNT];
+        char[] inner = new char[KEY_COUNT];
+        for (int k2 = 0; k2 < KEY_COUNT; k2++) {
+            outer[k2] = (char) SAESTables.encrypt(plaintexts16[0], roundKeys[k2]);
+            inner[k2] = (char) SAESTables.decrypt(ciphertexts16[0], roundKeys[k2]);
+        }
+
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, k1From, k1To, CHUNK_OUTER_KEYS, (from, to) -> {
+            SAESKeySet.Builder local = new SAESKeySet.Builder();
+            for (int k1 = (int) from; k1 < to; k1++) {
+                tracker.checkCancelled();
+                long roundKeys1 = roundKeys[k1];
+                for (int k2 = 0; k2 < KEY_COUNT; k2++) {
+                    if (SAESTables.decrypt(outer[k2], roundKeys1) == inner[k2]
+                            && matchesAll(roundKeys1, roundKeys[k2], plaintexts16, ciphertexts16)) {
+                        local.add((k1 << 16) | k2);
+                    }
+                }
+            }
+            synchronized (result) {
+                result.addAll(local);
+            }
+            tracker.advance((to - from) * KEY_COUNT, local.size());
+        });
+        return result.build();
+    }
+
+    /**
+     * 朴素穷举：对key32 ∈ [keyFrom, keyTo)逐个调用SAES.tripleEncrypt验证全部明密文对
+     * 作为计时基准，单线程执行。
+     */
+    public static SAESKeySet naiveSearch(int[] plaintexts16, int[] ciphertexts16, long keyFrom, long keyTo) {
+        SAESMitm.checkPairs(plaintexts16, ciphertexts16);
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        for (long key = keyFrom; key < keyTo; key++) {
+            int key32 = (int) key;
+            boolean match = true;
+            for (int i = 0; i < plaintexts16.length && match; i++) {
+                match = SAES.tripleEncrypt(plaintexts16[i], key32) == (ciphertexts16[i] & 0xFFFF);
+            }
+            if (match) result.add(key32);
+        }
+        return result.build();
+    }
+
+    /**
+     * 计时对比：用随机密钥key32加密pairs对随机明文，分别执行选择明文攻击、已知明文攻击和朴素穷举
+     * 已知明文攻击只遍历sampleK1个K1、朴素穷举只遍历2^20个密钥，再按比例推算完整2^32的耗时。
+     */
+    public static Report benchmark(int key32, int pairs, int sampleK1, ForkJoinPool pool) {
+        if (pairs <= 0) throw new IllegalArgumentException("至少需要一对明密文");
+        SAESMultiCipher cipher = SAESMultiCipher.tripleCipher(key32);
+        Random random = new Random(key32);
+        int[] plaintexts = new int[pairs];
+        int[] ciphertexts = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            plaintexts[i] = random.nextInt(KEY_COUNT);
+            ciphertexts[i] = cipher.encryptBlock(plaintexts[i]);
+        }
+        SAESMitm.allRoundKeys();
+
+        long start = System.nanoTime();
+        SAESKeySet chosenKeys = chosenPlaintext(cipher::encryptBlock, pool, null, null);
+        long chosenNanos = System.nanoTime() - start;
+
+        int sample = Math.max(1, Math.min(sampleK1, KEY_COUNT));
+        int k1From = Math.min((key32 >>> 16), KEY_COUNT - sample);
+        start = System.nanoTime();
+        SAESKeySet knownKeys = knownPlaintext(plaintexts, ciphertexts, k1From, k1From + sample, pool, null, null);
+        long knownNanos = (System.nanoTime() - start) * KEY_COUNT / sample;
+
+        long naiveSample = 1L << 20;
+        start = System.nanoTime();
+        naiveSearch(plaintexts, ciphertexts, 0, naiveSample);
+        long naiveNanos = (System.nanoTime() - start) * ((1L << 32) / naiveSample);
+
+        return new Report(key32, pairs, chosenKeys, knownKeys, chosenNanos, knownNanos, sample == KEY_COUNT,
+                naiveNanos, pool.getParallelism());
+    }
+
+    // 候选密钥是否满足第2..N对明密文（逐对检查，遇到不符立即返回）
+    static boolean matchesAll(long roundKeys1, long roundKeys2, int[] plaintexts16, int[] ciphertexts16) {
+        for (int i = 1; i < plaintexts16.length; i++) {
+            if (encrypt(plaintexts16[i], roundKeys1, roundKeys2) != (ciphertexts16[i] & 0xFFFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 候选密钥是否与码本中全部已查询的明文一致
+    private static boolean matchesCodebook(long roundKeys1, long roundKeys2, int[] queried, int count,
+                                           int[] codebook) {
+        for (int i = 0; i < count; i++) {
+            int p = queried[i];
+            if (encrypt(p, roundKeys1, roundKeys2) != codebook[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // EDE加密：E(K2, D(K1, E(K2, P)))
+    static int encrypt(int plaintext16, long roundKeys1, long roundKeys2) {
+        int step1 = SAESTables.encrypt(plaintext16, roundKeys2);
+        int step2 = SAESTables.decrypt(step1, roundKeys1);
+        return SAESTables.encrypt(step2, roundKeys2);
+    }
+
+    // 一次计时对比的结果
+    public static final class Report {
+        private final int key32;
+        private final int pairs;
+        private final SAESKeySet chosenKeys;
+        private final SAESKeySet knownKeys;
+        private final long chosenNanos;
+        private final long knownNanos;
+        private final boolean knownMeasured;
+        private final long naiveNanos;
+        private final int parallelism;
+
+        Report(int key32, int pairs, SAESKeySet chosenKeys, SAESKeySet knownKeys, long chosenNanos,
+               long knownNanos, boolean knownMeasured, long naiveNanos, int parallelism) {
+            this.key32 = key32;
+            this.pairs = pairs;
+            this.chosenKeys = chosenKeys;
+            this.knownKeys = knownKeys;
+            this.chosenNanos = chosenNanos;
+            this.knownNanos = knownNanos;
+            this.knownMeasured = knownMeasured;
+            this.naiveNanos = naiveNanos;
+            this.parallelism = parallelism;
+        }
+
+        // 选择明文攻击得到的全部密钥
+        public SAESKeySet getChosenKeys() {
+            return chosenKeys;
+        }
+
+        // 已知明文攻击在抽样区间内得到的密钥（完整执行时即全部密钥）
+        public SAESKeySet getKnownKeys() {
+            return knownKeys;
+        }
+
+        public long getChosenNanos() {
+            return chosenNanos;
+        }
+
+        // 已知明文攻击遍历2^32的耗时（抽样时为推算值）
+        public long getKnownNanos() {
+            return knownNanos;
+        }
+
+        // 朴素穷举2^32的推算耗时（单线程）
+        public long getNaiveNanos() {
+            return naiveNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("EDE密钥恢复计时（目标密钥%08X，%d对明密文，并行度%d）%n"
+                            + "  选择明文攻击：%.1fms，候选密钥%d个%s%n"
+                            + "  已知明文攻击：%s%.1fs，相对朴素穷举加速%.1f倍%n"
+                            + "  朴素穷举2^32（单线程，推算）：%.1fs，选择明文攻击加速%.0f倍",
+                    key32, pairs, parallelism,
+                    chosenNanos / 1e6, chosenKeys.size(), chosenKeys.contains(key32) ? "（含目标密钥）" : "",
+                    knownMeasured ? "" : "推算", knownNanos / 1e9, (double) naiveNanos / knownNanos,
+                    naiveNanos / 1e9, (double) naiveNanos / chosenNanos);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+import java.lang.reflect.Constructor;
+import java.util.function.IntFunction;
+
+/**
+ * 批量加解密引擎选择
+ * 默认使用标量查表引擎（实测约3ns/分组，比Vector API引擎的约5ns/分组更快）。
+ * 可用系统属性saes.engine=table|bitsliced|vector指定；vector需另行编译vector/目录下的SAESVectorEngine
+ * 并加--add-modules jdk.incubator.vector运行，不可用时自动退回查表引擎。
+ * SAES的字符串接口和SAESCore的ASCII、CBC接口都用这里创建的引擎，GUI标题栏显示activeEngine()。
+ */
+public final class SAESEngines {
+    public static final String TABLE = "table";
+    public static final String BITSLICED = "bitsliced";
+    public static final String VECTOR = "vector";
+
+    private static final String ACTIVE_ENGINE;
+    private static final IntFunction<SAESBlockCipher> FACTORY;
+
+    static {
+        String requested = System.getProperty("saes.engine", TABLE);
+        IntFunction<SAESBlockCipher> vectorFactory = VECTOR.equals(requested) ? loadVectorEngine() : null;
+        if (vectorFactory != null) {
+            ACTIVE_ENGINE = VECTOR;
+            FACTORY = vectorFactory;
+        } else if (BITSLICED.equals(requested)) {
+            ACTIVE_ENGINE = BITSLICED;
+            FACTORY = SAESBitsliced::new;
+        } else {
+            ACTIVE_ENGINE = TABLE;
+            FACTORY = SAESCipher::new;
+        }
+    }
+
+    private SAESEngines() {
+    }
+
+    // 当前生效的引擎名称
+    public static String activeEngine() {
+        return ACTIVE_ENGINE;
+    }
+
+    // 用当前引擎创建绑定密钥的批量加解密对象
+    public static SAESBlockCipher create(int key16) {
+        return FACTORY.apply(key16);
+    }
+
+    // 通过反射加载向量引擎，未加入jdk.incubator.vector模块、类缺失或CPU不支持时返回null
+    private static IntFunction<SAESBlockCipher> loadVectorEngine() {
+        try {
+            Class<?> engineClass = Class.forName("SAESVectorEngine");
+            if (!(Boolean) engineClass.getMethod("isSupported").invoke(null)) {
+                return null;
+            }
+            Constructor<?> constructor = engineClass.getConstructor(int.class);
+            // 先实际跑一次，确保向量类在运行时可链接
+            SAESBlockCipher probe = (SAESBlockCipher) constructor.newInstance(0);
+            probe.encryptBlocks(new int[16], 0, new int[16], 0, 16);
+            return key16 -> {
+                try {
+                    return (SAESBlockCipher) constructor.newInstance(key16);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("创建向量引擎失败", e);
+                }
+            };
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
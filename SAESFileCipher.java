@@ -0,0 +1,258 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 基于内存映射的整文件加解密工具（ECB、CBC、CTR）
+ * 输入输出文件按固定大小的窗口用FileChannel.map映射，窗口内再按1MB的分片拷入同一个复用的堆数组，
+ * 交给SAESEcb、SAESCbc、SAESCtr并行处理后写回输出映射。映射区域不占Java堆，
+ * 堆上只有这一个分片数组，因此堆占用与文件大小无关，可以处理数GB的文件。
+ * 输入与输出为同一文件时就地处理。
+ *
+ * 文件格式：只有密文本身，IV由调用方保存。ECB与CBC使用PKCS#7填充（密文比明文多1~2字节），
+ * 最后一个分组单独处理以便填充、去填充；CTR不填充，密文与明文等长。
+ * 解密时先检查最后一个分组的填充再处理其余数据，密钥、IV或模式错误时不会改动就地处理的输入；
+ * 非就地处理失败时删除不完整的输出文件。
+ * 警告：CTR的计数器只有16位，每65536个分组（128KB）循环一次，超过128KB的文件会重复使用密钥流，
+ * 两段相距128KB整数倍的密文异或即得对应明文的异或。CTR只适合不超过128KB的文件，大文件请用CBC。
+ * 注意：映射区域在被垃圾回收前不会解除映射，Windows上此时无法删除或截断该文件。
+ */
+public final class SAESFileCipher {
+    // 每次映射的窗口大小（偶数）
+    private static final int WINDOW_BYTES = 64 << 20;
+    // 每次拷入堆数组处理的分片大小（偶数）
+    private static final int SLAB_BYTES = 1 << 20;
+
+    private final SAESMode mode;
+    private final SAESBlockCipher cipher;
+    private final int iv16;
+    private final SAESEcb ecb;
+    private final SAESCbc cbc;
+    private final SAESCtr ctr;
+
+    public SAESFileCipher(SAESMode mode, int key16, int iv16) {
+        this(mode, new SAESCipher(key16), iv16, ForkJoinPool.commonPool());
+    }
+
+    // cipher可为任意批量引擎（如SAESEngines.create(key)）；ECB模式忽略iv16
+    public SAESFileCipher(SAESMode mode, SAESBlockCipher cipher, int iv16, ForkJoinPool pool) {
+        this.mode = mode;
+        this.cipher = cipher;
+        this.iv16 = iv16 & 0xFFFF;
+        this.ecb = new SAESEcb(cipher, pool);
+        this.cbc = new SAESCbc(cipher, pool);
+        this.ctr = new SAESCtr(cipher, iv16, pool);
+    }
+
+    public SAESMode getMode() {
+        return mode;
+    }
+
+    // 加密input写入output（可为同一文件）
+    public Report encrypt(Path input, Path output) throws IOException {
+        return run(input, output, true);
+    }
+
+    // 解密input写入output（可为同一文件）；填充无效时抛出IOException
+    public Report decrypt(Path input, Path output) throws IOException {
+        return run(input, output, false);
+    }
+
+    private Report run(Path input, Path output, boolean encrypt) throws IOException {
+        long start = System.nanoTime();
+        boolean inPlace = Files.exists(output) && Files.isSameFile(input, output);
+        try {
+            return run(input, output, inPlace, encrypt, start);
+        } catch (IOException | RuntimeException e) {
+            if (!inPlace) {
+                try {
+                    Files.deleteIfExists(output);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private Report run(Path input, Path output, boolean inPlace, boolean encrypt, long start) throws IOException {
+        try (FileChannel in = inPlace
+                ? FileChannel.open(input, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = inPlace ? null : FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileChannel target = inPlace ? in : out;
+            long size = in.size();
+            // 按窗口处理的部分：填充模式下不含最后一个（不完整的）分组
+            long body;
+            if (!mode.isPadded()) {
+                body = size;
+            } else if (encrypt) {
+                body = size & ~1L;
+            } else {
+                if (size < 2 || (size & 1) != 0) throw new IOException("密文长度必须为不小于2的偶数：" + size);
+                body = size - 2;
+            }
+            // 解密时先解出最后一个分组并检查填充，失败时还没有写入任何数据
+            ByteBuffer lastPlain = mode.isPadded() && !encrypt ? decryptLastBlock(in, body) : null;
+
+            byte[] slab = new byte[(int) Math.max(2, Math.min(SLAB_BYTES, body))];
+            int chain = iv16;
+            for (long position = 0; position < body; position += WINDOW_BYTES) {
+                int windowLength = (int) Math.min(WINDOW_BYTES, body - position);
+                MappedByteBuffer source = in.map(inPlace ? FileChannel.MapMode.READ_WRITE
+                        : FileChannel.MapMode.READ_ONLY, position, windowLength);
+                MappedByteBuffer destination = inPlace ? source
+                        : target.map(FileChannel.MapMode.READ_WRITE, position, windowLength);
+                for (int offset = 0; offset < windowLength; offset += slab.length) {
+                    int len = Math.min(slab.length, windowLength - offset);
+                    source.position(offset);
+                    source.get(slab, 0, len);
+                    chain = processSlab(slab, len, position + offset, chain, encrypt);
+                    destination.position(offset);
+                    destination.put(slab, 0, len);
+                }
+            }
+
+            long outputSize = body;
+            if (lastPlain != null) {
+                outputSize += lastPlain.remaining();
+                writeFully(target, lastPlain, body);
+            } else if (mode.isPadded()) {
+                outputSize += encryptLastBlock(in, target, body, size - body, chain);
+            }
+            if (target.size() > outputSize) target.truncate(outputSize);
+            return new Report(mode, encrypt, size, outputSize, System.nanoTime() - start);
+        }
+    }
+
+    // 处理一个分片；返回CBC下一分片的链接值（其他模式原样返回）
+    private int processSlab(byte[] slab, int len, long streamOffset, int chain, boolean encrypt) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    ecb.encrypt(slab, 0, slab, 0, len);
+                } else {
+                    ecb.decrypt(slab, 0, slab, 0, len);
+                }
+                return chain;
+            case CBC:
+                return encrypt ? cbc.encrypt(slab, 0, slab, 0, len, chain) : cbc.decrypt(slab, 0, slab, 0, len, chain);
+            default:
+                ctr.process(slab, 0, slab, 0, len, streamOffset);
+                return chain;
+        }
+    }
+
+    // 剩余的0或1个字节加上PKCS#7填充组成最后一个分组，加密后写在position处；返回写入的字节数
+    private int encryptLastBlock(FileChannel in, FileChannel out, long position, long tail, int chain)
+            throws IOException {
+        byte[] last = new byte[2];
+        if (tail > 0) readFully(in, ByteBuffer.wrap(last, 0, 1), position);
+        SAESPadding.pad(last, 0, (int) tail);
+        int block = SAESCore.readBlock(last, 0);
+        SAESCore.writeBlock(last, 0, cipher.encryptBlock(mode == SAESMode.CBC ? block ^ chain : block));
+        writeFully(out, ByteBuffer.wrap(last), position);
+        return 2;
+    }
+
+    /**
+     * 解密position处的最后一个分组并去除填充，返回剩余的0或1个明文字节
+     * CBC的链接值是前一个密文分组（文件只有一个分组时为IV），须在处理其余数据之前读取。
+     */
+    private ByteBuffer decryptLastBlock(FileChannel in, long position) throws IOException {
+        byte[] last = new byte[4];
+        if (position >= 2) {
+            readFully(in, ByteBuffer.wrap(last), position - 2);
+        } else {
+            SAESCore.writeBlock(last, 0, iv16);
+            readFully(in, ByteBuffer.wrap(last, 2, 2).slice(), position);
+        }
+        int block = cipher.decryptBlock(SAESCore.readBlock(last, 2));
+        SAESCore.writeBlock(last, 2, mode == SAESMode.CBC ? block ^ SAESCore.readBlock(last, 0) : block);
+        int keep = SAESPadding.unpaddedLength(last, 2, 2);
+        if (keep < 0) throw new IOException("PKCS#7填充无效（密钥、IV或模式错误，或文件被篡改）");
+        return ByteBuffer.wrap(last, 2, keep).slice();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer, position + buffer.position());
+            if (n < 0) throw new IOException("文件意外结束");
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    // 命令行入口：java SAESFileCipher encrypt|decrypt ECB|CBC|CTR 密钥 IV 输入文件 输出文件
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            System.err.println("用法：java SAESFileCipher encrypt|decrypt ECB|CBC|CTR <密钥(4位十六进制)> "
+                    + "<IV(4位十六进制，ECB忽略)> <输入文件> <输出文件>");
+            System.err.println("警告：CTR的16位计数器每128KB循环一次，超过128KB的文件会重复使用密钥流，请改用CBC");
+            System.exit(2);
+        }
+        Integer key16 = SAES.hexToInt(args[2]);
+        Integer iv16 = SAES.hexToInt(args[3]);
+        if (key16 == null || iv16 == null) {
+            System.err.println("密钥和IV必须为十六进制数");
+            System.exit(2);
+        }
+        SAESFileCipher tool = new SAESFileCipher(SAESMode.valueOf(args[1].toUpperCase()), key16, iv16);
+        Path input = Paths.get(args[4]);
+        Path output = Paths.get(args[5]);
+        Report report = "decrypt".equals(args[0]) ? tool.decrypt(input, output) : tool.encrypt(input, output);
+        System.out.println(report);
+    }
+
+    // 一次处理的统计
+    public static final class Report {
+        private final SAESMode mode;
+        private final boolean encrypt;
+        private final long inputBytes;
+        private final long outputBytes;
+        private final long elapsedNanos;
+
+        Report(SAESMode mode, boolean encrypt, long inputBytes, long outputBytes, long elapsedNanos) {
+            this.mode = mode;
+            this.encrypt = encrypt;
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long getInputBytes() {
+            return inputBytes;
+        }
+
+        public long getOutputBytes() {
+            return outputBytes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        // 按输入字节数计算的吞吐量（MB/s，1MB = 2^20字节）
+        public double getMegabytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : inputBytes / 1048576.0 / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s%s：输入%d字节，输出%d字节，耗时%.1fms，%.1fMB/s",
+                    mode, encrypt ? "加密" : "解密", inputBytes, outputBytes, elapsedNanos / 1e6,
+                    getMegabytesPerSecond());
+        }
+    }
+}
\ No newline at end of file
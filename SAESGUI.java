@@ -4,6 +4,8 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -21,7 +23,8 @@ public class SAESGUI extends JFrame {
 
     public SAESGUI() {
         // 窗口初始化
-        setTitle("S-AES 加解密工具");
+        // 标题栏显示字符串、CBC等批量路径实际使用的引擎（-Dsaes.engine）
+        setTitle("S-AES 加解密工具（批量引擎：" + SAESEngines.activeEngine() + "）");
         setSize(950, 620);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
@@ -78,6 +81,24 @@ public class SAESGUI extends JFrame {
         return field;
     }
 
+    /**
+     * 解析以逗号或空白分隔的多个16位十六进制分组
+     */
+    private int[] parseHexBlocks(String text, String name) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) throw new IllegalArgumentException("请输入" + name + "（4个十六进制字符）");
+        String[] parts = trimmed.split("[,，\\s]+");
+        int[] blocks = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            Integer value = SAES.hexToInt(parts[i]);
+            if (parts[i].length() != 4 || value == null) {
+                throw new IllegalArgumentException(name + "必须为4个十六进制字符（对应16位）：" + parts[i]);
+            }
+            blocks[i] = value;
+        }
+        return blocks;
+    }
+
     // -------------------------- 第1关：基础加解密选项卡 --------------------------
     private JPanel createBasicTab() {
         JPanel panel = new JPanel(new GridBagLayout());
@@ -232,7 +253,7 @@ public class SAESGUI extends JFrame {
                         "2. 使用密钥（16位，十六进制）：" + keyHex + "\n" +
                         "3. 加密处理说明：\n" +
                         "   - 字符串转ASCII字节：" + Arrays.toString(plainStr.getBytes(StandardCharsets.US_ASCII)) + "\n" +
-                        "   - 2字节分组补0：长度" + plainStr.length() + "→" + cipherBytes.length + "字节\n" +
+                        "   - 2字节分组PKCS#7填充：长度" + plainStr.length() + "→" + cipherBytes.length + "字节\n" +
                         "4. 密文（十六进制，建议传输格式）：" + SAESCore.bytesToHex(cipherBytes) + "\n" +
                         "5. 注意：密文为不可显乱码，需以十六进制保存/传输");
             } catch (Exception ex) {
@@ -260,7 +281,7 @@ public class SAESGUI extends JFrame {
                         "2. 使用密钥（16位，十六进制）：" + keyHex + "\n" +
                         "3. 解密处理说明：\n" +
                         "   - 密文字节数：" + cipher.length + "字节（2字节分组解密）\n" +
-                        "   - 自动去除末尾补0：原始" + cipher.length + "→" + plainStr.length() + "字符\n" +
+                        "   - 自动去除PKCS#7填充：原始" + cipher.length + "→" + plainStr.length() + "字符\n" +
                         "4. 解密后ASCII字符串：" + plainStr);
             } catch (Exception ex) {
                 resultArea.setText("=== ASCII字符串解密失败 ===\n" +
@@ -294,12 +315,19 @@ public class SAESGUI extends JFrame {
 
         JLabel mitmTitle = new JLabel("=== 中间相遇攻击（破解双重加密密钥） ===");
         mitmTitle.setFont(new Font("微软雅黑", Font.BOLD, 12));
-        JLabel mitmPlainLabel = new JLabel("攻击明文（16位，4个十六进制字符）：");
+        JLabel mitmPlainLabel = new JLabel("攻击明文（16位，4个十六进制字符；多对用逗号分隔）：");
         JTextField mitmPlainField = createInputField();
-        JLabel mitmCipherLabel = new JLabel("攻击密文（16位，双重加密结果）：");
+        JLabel mitmCipherLabel = new JLabel("攻击密文（16位，双重加密结果；与明文一一对应）：");
         JTextField mitmCipherField = createInputField();
-        JButton mitmBtn = new JButton("执行攻击（约1-2秒）");
+        JButton mitmBtn = new JButton("执行攻击");
         mitmBtn.setFont(baseFont);
+        JButton mitmCancelBtn = new JButton("取消攻击");
+        mitmCancelBtn.setFont(baseFont);
+        mitmCancelBtn.setEnabled(false);
+        JPanel mitmBtnPanel = new JPanel();
+        mitmBtnPanel.add(mitmBtn);
+        mitmBtnPanel.add(Box.createHorizontalStrut(20));
+        mitmBtnPanel.add(mitmCancelBtn);
 
         JLabel resultLabel = new JLabel("操作结果：");
         JScrollPane resultScroll = createResultPanel();
@@ -333,7 +361,7 @@ public class SAESGUI extends JFrame {
         panel.add(mitmCipherField, gbc);
 
         gbc.gridx = 0; gbc.gridy = 6; gbc.gridwidth = 3;
-        panel.add(mitmBtn, gbc);
+        panel.add(mitmBtnPanel, gbc);
 
         gbc.gridx = 0; gbc.gridy = 7; gbc.gridwidth = 1;
         panel.add(resultLabel, gbc);
@@ -396,62 +424,71 @@ public class SAESGUI extends JFrame {
             }
         });
 
-        // 中间相遇攻击按钮事件
+        // 中间相遇攻击按钮事件（后台并行执行，实时显示进度，可取消）
+        final AtomicReference<SAESCancellationToken> mitmTokenRef = new AtomicReference<>(null);
+        mitmCancelBtn.addActionListener(e -> {
+            SAESCancellationToken token = mitmTokenRef.get();
+            if (token != null) token.cancel();
+        });
         mitmBtn.addActionListener(e -> {
             try {
+                int[] mitmPlains = parseHexBlocks(mitmPlainField.getText(), "明文");
+                int[] mitmCiphers = parseHexBlocks(mitmCipherField.getText(), "密文");
+                if (mitmPlains.length != mitmCiphers.length) {
+                    throw new IllegalArgumentException("明文与密文的个数必须一致（每个明文对应一个密文）");
+                }
                 String mitmPlainHex = mitmPlainField.getText().trim();
                 String mitmCipherHex = mitmCipherField.getText().trim();
-                if (mitmPlainHex.length() != 4 || mitmCipherHex.length() != 4) {
-                    throw new IllegalArgumentException("明密文对必须均为4个十六进制字符（对应16位）");
-                }
 
                 resultArea.setText("=== 中间相遇攻击中 ===\n" +
                         "1. 攻击参数：\n" +
                         "   - 明文P：" + mitmPlainHex + "\n" +
                         "   - 双重加密密文C：" + mitmCipherHex + "\n" +
-                        "2. 攻击进度：正在预计算K1加密结果（共65536种）...\n" +
-                        "   （预计1-2秒，请勿关闭窗口）");
+                        "2. 攻击进度：正在预计算K1加密结果（共65536种）...");
 
-                // 线程安全包装变量
-                final AtomicReference<String> keyHexRef = new AtomicReference<>("未找到有效密钥");
-                final AtomicReference<Boolean> isKeyValidRef = new AtomicReference<>(false);
-                final AtomicReference<byte[]> key32Ref = new AtomicReference<>(null);
-                final AtomicReference<byte[]> mitmPlainRef = new AtomicReference<>(SAESCore.hexToBytes(mitmPlainHex));
-                final AtomicReference<byte[]> mitmCipherRef = new AtomicReference<>(SAESCore.hexToBytes(mitmCipherHex));
+                final SAESCancellationToken token = new SAESCancellationToken();
+                mitmTokenRef.set(token);
+                mitmBtn.setEnabled(false);
+                mitmCancelBtn.setEnabled(true);
 
-                new Thread(() -> {
+                Thread worker = new Thread(() -> {
                     try {
-                        byte[] threadMitmPlain = mitmPlainRef.get();
-                        byte[] threadMitmCipher = mitmCipherRef.get();
-                        byte[] threadKey32 = SAESCore.meetInTheMiddle(threadMitmPlain, threadMitmCipher);
-                        key32Ref.set(threadKey32);
-
-                        if (threadKey32 != null) {
-                            String threadKeyHex = SAESCore.bytesToHex(threadKey32);
-                            keyHexRef.set(threadKeyHex);
-                            byte[] verifyCipher = SAESCore.encryptDouble(threadMitmPlain, threadKey32);
-                            isKeyValidRef.set(Arrays.equals(verifyCipher, threadMitmCipher));
-                        }
+                        SAESKeySet keys = SAESMitm.findKeys(mitmPlains, mitmCiphers, ForkJoinPool.commonPool(),
+                                (phase, processed, total, found, etaMillis) -> SwingUtilities.invokeLater(() -> {
+                                    if (token.isCancelled()) return;
+                                    resultArea.setText("=== 中间相遇攻击中 ===\n" +
+                                            "1. 攻击参数：\n" +
+                                            "   - 明文P：" + mitmPlainHex + "\n" +
+                                            "   - 双重加密密文C：" + mitmCipherHex + "\n" +
+                                            "2. 攻击进度：" + phase + "\n" +
+                                            "   - 已处理密钥：" + processed + " / " + total +
+                                            "（" + (processed * 100 / total) + "%）\n" +
+                                            "   - 已找到候选密钥：" + found + "\n" +
+                                            "   - 预计剩余时间：" + (etaMillis < 0 ? "计算中" : etaMillis + "毫秒"));
+                                }), token);
 
                         SwingUtilities.invokeLater(() -> {
-                            byte[] uiKey32 = key32Ref.get();
-                            String uiKeyHex = keyHexRef.get();
-                            boolean uiIsKeyValid = isKeyValidRef.get();
-                            byte[] uiMitmPlain = mitmPlainRef.get();
-
-                            if (uiKey32 != null && uiIsKeyValid) {
-                                String k1Hex = uiKeyHex.substring(0, 4);
-                                String k2Hex = uiKeyHex.substring(4, 8);
+                            if (!keys.isEmpty()) {
+                                StringBuilder keyList = new StringBuilder();
+                                for (int i = 0; i < Math.min(keys.size(), 10); i++) {
+                                    String keyHex = SAES.intToHex(keys.get(i), 32);
+                                    keyList.append("   - ").append(keyHex)
+                                            .append("（K1=").append(keyHex, 0, 4)
+                                            .append("，K2=").append(keyHex, 4, 8).append("）\n");
+                                }
+                                if (keys.size() > 10) keyList.append("   - ……共").append(keys.size()).append("个\n");
+                                int firstKey = keys.get(0);
                                 resultArea.setText("=== 中间相遇攻击成功 ===\n" +
-                                        "1. 攻击结果：\n" +
-                                        "   - 破解的32位密钥（K1+K2）：" + uiKeyHex + "\n" +
-                                        "   - K1（前16位）：" + k1Hex + "\n" +
-                                        "   - K2（后16位）：" + k2Hex + "\n" +
+                                        "1. 攻击结果：与全部" + mitmPlains.length + "对明密文一致的32位密钥（K1+K2）共" + keys.size() + "个：\n" +
+                                        keyList +
                                         "2. 密钥验证：\n" +
-                                        "   - 用K1+K2加密P：" + SAESCore.bytesToHex(SAESCore.encryptDouble(uiMitmPlain, uiKey32)) + "\n" +
-                                        "   - 目标密文C：" + mitmCipherHex + "\n" +
-                                        "   - 验证结果：一致（密钥正确）\n" +
-                                        "3. 攻击原理：预计算所有K1的E(P,K1)→哈希表，遍历所有K2的D(C,K2)→匹配中间值（时间换空间）");
+                                        "   - 用" + SAES.intToHex(firstKey, 32) + "加密P：" +
+                                        SAES.intToHex(SAES.doubleEncrypt(mitmPlains[0], firstKey), 16) + "\n" +
+                                        "   - 目标密文C：" + SAES.intToHex(mitmCiphers[0], 16) + "\n" +
+                                        (keys.size() > 1
+                                                ? "   - 提示：候选密钥不唯一，请追加更多明密文对（逗号分隔）缩小范围\n"
+                                                : "   - 验证结果：唯一且一致（密钥正确）\n") +
+                                        "3. 攻击原理：预计算所有K1的E(P,K1)并按中间值分桶，遍历所有K2的D(C,K2)→O(1)匹配中间值，其余明密文对逐个过滤候选");
                             } else {
                                 resultArea.setText("=== 中间相遇攻击失败 ===\n" +
                                         "1. 攻击参数：\n" +
@@ -460,23 +497,34 @@ public class SAESGUI extends JFrame {
                                         "2. 失败原因：未找到匹配的32位密钥\n" +
                                         "   排查建议：\n" +
                                         "   - 确认C是P通过S-AES双重加密的结果（非单次加密/其他算法）\n" +
-                                        "   - 检查明密文对格式（均为4个十六进制字符，无空格/错误字符）");
+                                        "   - 多对明密文须使用同一密钥加密，且顺序一一对应");
                             }
                         });
+                    } catch (CancellationException ex) {
+                        SwingUtilities.invokeLater(() -> resultArea.setText("=== 中间相遇攻击已取消 ===\n" +
+                                "1. 攻击参数：\n" +
+                                "   - 明文P：" + mitmPlainHex + "\n" +
+                                "   - 密文C：" + mitmCipherHex));
                     } catch (Exception ex) {
                         SwingUtilities.invokeLater(() -> {
                             resultArea.setText("=== 中间相遇攻击异常 ===\n" +
-                                    "错误原因：" + ex.getMessage() + "\n" +
-                                    "排查建议：确保SAESCore类的meetInTheMiddle方法正常调用（参数为16位字节数组）");
+                                    "错误原因：" + ex.getMessage());
+                        });
+                    } finally {
+                        SwingUtilities.invokeLater(() -> {
+                            mitmBtn.setEnabled(true);
+                            mitmCancelBtn.setEnabled(false);
                         });
                     }
-                }).start();
+                }, "saes-mitm");
+                worker.setDaemon(true);
+                worker.start();
             } catch (Exception ex) {
                 resultArea.setText("=== 中间相遇攻击参数错误 ===\n" +
                         "错误原因：" + ex.getMessage() + "\n" +
                         "参数要求：\n" +
-                        "   - 明文P：16位（4个十六进制字符，如0000、2D55）\n" +
-                        "   - 密文C：16位（双重加密结果，4个十六进制字符）");
+                        "   - 明文P：16位（4个十六进制字符，如0000、2D55），多对用逗号分隔\n" +
+                        "   - 密文C：16位（双重加密结果，4个十六进制字符），与明文一一对应");
             }
         });
 
@@ -705,7 +753,7 @@ public class SAESGUI extends JFrame {
                         "   - 密钥（16位，十六进制）：" + keyHex + "\n" +
                         "   - 初始向量IV（16位，十六进制）：" + ivHex + "\n" +
                         "3. 加密结果：\n" +
-                        "   - 明文字节数：" + plain.length + "→补0后" + (plain.length + (2 - plain.length%2)%2) + "字节\n" +
+                        "   - 明文字节数：" + plain.length + "→PKCS#7填充后" + SAESPadding.paddedLength(plain.length) + "字节\n" +
                         "   - 密文（含IV，十六进制）：" + SAESCore.bytesToHex(cipher) + "\n" +
                         "   - 密文结构：前2字节=IV，后续=加密分组");
             } catch (Exception ex) {
@@ -739,7 +787,7 @@ public class SAESGUI extends JFrame {
                         "3. 解密结果：\n" +
                         "   - 从密文提取IV（16位，十六进制）：" + SAESCore.bytesToHex(iv) + "\n" +
                         "   - 解密后明文（ASCII）：" + plainStr + "\n" +
-                        "   - 明文字节数：" + plain.length + "（自动去除补0）");
+                        "   - 明文字节数：" + plain.length + "（已去除PKCS#7填充）");
             } catch (Exception ex) {
                 resultArea.setText("=== CBC模式解密失败 ===\n" +
                         "错误原因：" + ex.getMessage() + "\n" +
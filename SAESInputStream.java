@@ -0,0 +1,149 @@
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 边读边解密（或加密）的输入流，支持ECB、CBC、CTR
+ * 从下层流读入固定大小的内部缓冲区，就地处理后交给调用方，内存占用与数据总量无关；
+ * 下层流只要返回了可处理的数据就立即交付，不会为凑满缓冲区而阻塞，适合套在socket或GZIPInputStream上。
+ * ECB与CBC解密时最后一个分组要等到下层流结束才能去填充，加密时在下层流结束后补填充。
+ * 填充无效或密文长度不对时read抛出IOException。非线程安全，不支持mark/reset。
+ */
+public class SAESInputStream extends FilterInputStream {
+    // 默认内部缓冲区大小（偶数）
+    public static final int DEFAULT_BUFFER_BYTES = 8 * 1024;
+
+    private final SAESStreamCipher state;
+    private final byte[] buffer;
+    private final int bufferLimit;
+    // buffer[pos..ready)为已处理、待交付的数据，buffer[ready..count)为尚未处理的原始数据
+    private int pos;
+    private int ready;
+    private int count;
+    private boolean eof;
+    private boolean finished;
+    private boolean closed;
+
+    // 解密输入流（默认缓冲区）
+    public SAESInputStream(InputStream in, SAESMode mode, SAESBlockCipher cipher, int iv16) {
+        this(in, mode, cipher, iv16, false, DEFAULT_BUFFER_BYTES);
+    }
+
+    // encrypt为true时加密读到的明文；bufferBytes须为不小于4的偶数
+    public SAESInputStream(InputStream in, SAESMode mode, SAESBlockCipher cipher, int iv16, boolean encrypt,
+                           int bufferBytes) {
+        super(in);
+        if (bufferBytes < 4 || (bufferBytes & 1) != 0) {
+            throw new IllegalArgumentException("缓冲区大小必须为不小于4的偶数：" + bufferBytes);
+        }
+        this.state = new SAESStreamCipher(mode, cipher, iv16, encrypt);
+        // 多出的2字节留给加密时的填充
+        this.buffer = new byte[bufferBytes + SAESPadding.BLOCK_BYTES];
+        this.bufferLimit = bufferBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        while (pos == ready) {
+            if (finished) return -1;
+            fill();
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + off + "，len=" + len);
+        }
+        if (len == 0) return 0;
+        while (pos == ready) {
+            if (finished) return -1;
+            fill();
+        }
+        int n = Math.min(len, ready - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    // 跳过的字节同样要经过解密（CBC、CTR的状态依赖前面的数据）
+    @Override
+    public long skip(long n) throws IOException {
+        ensureOpen();
+        long skipped = 0;
+        while (skipped < n) {
+            if (pos == ready) {
+                if (finished) break;
+                fill();
+                continue;
+            }
+            int step = (int) Math.min(n - skipped, ready - pos);
+            pos += step;
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    // 已处理、不阻塞即可读取的字节数
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return ready - pos;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    // 不支持mark，调用无效果
+    @Override
+    public synchronized void mark(int readlimit) {
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        throw new IOException("不支持mark/reset");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        in.close();
+    }
+
+    // 读入并处理下一批数据：有可处理的数据即返回；下层流结束时处理剩余数据（补填充或去填充）
+    private void fill() throws IOException {
+        System.arraycopy(buffer, ready, buffer, 0, count - ready);
+        count -= ready;
+        pos = 0;
+        ready = 0;
+        while (!eof) {
+            int n = in.read(buffer, count, bufferLimit - count);
+            if (n < 0) {
+                eof = true;
+                break;
+            }
+            count += n;
+            int processable = state.processable(count);
+            if (processable > 0) {
+                state.update(buffer, 0, processable);
+                ready = processable;
+                return;
+            }
+        }
+        int processable = state.processable(count);
+        state.update(buffer, 0, processable);
+        ready = processable + state.doFinal(buffer, processable, count - processable);
+        count = ready;
+        finished = true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("流已关闭");
+    }
+}
\ No newline at end of file
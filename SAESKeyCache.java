@@ -0,0 +1,214 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 按密钥缓存SAESCipher/SAESCodebook等对象的并发LRU缓存
+ * 同时支持条目数上限和内存上限（按weigher估算字节数），超出任一上限即淘汰最久未使用的条目，
+ * 并统计命中、未命中和淘汰次数，便于按真实流量调整容量。
+ * 值的构建在锁外进行，避免一个较慢的码本构建阻塞其他密钥的查询；同一密钥的并发未命中共享同一个
+ * 构建任务（FutureTask），每个密钥只构建一次，其他线程等待该任务完成并计为命中。
+ * 键默认按16位密钥取低16位，因此key与key & 0xFFFF共用一个条目；组合键（如OFB的K << 16 | IV）
+ * 须用带keyMask的构造方法传入-1。
+ */
+public final class SAESKeyCache<V> {
+    // SAESCipher对象的估算大小：对象头 + int + long
+    private static final long CIPHER_BYTES = 32;
+
+    private final IntFunction<V> loader;
+    private final ToLongFunction<V> weigher;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final int keyMask;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Integer, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // 正在构建的键，构建完成后移入entries
+    private final HashMap<Integer, FutureTask<V>> loading = new HashMap<>();
+    private long currentBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SAESKeyCache(IntFunction<V> loader, ToLongFunction<V> weigher, int maxEntries, long maxBytes) {
+        this(loader, weigher, maxEntries, maxBytes, 0xFFFF);
+    }
+
+    // keyMask：查询前与键按位与，16位密钥为0xFFFF，32位组合键为-1
+    public SAESKeyCache(IntFunction<V> loader, ToLongFunction<V> weigher, int maxEntries, long maxBytes,
+                        int keyMask) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("缓存条目上限必须大于0");
+        if (maxBytes <= 0) throw new IllegalArgumentException("缓存内存上限必须大于0");
+        this.loader = loader;
+        this.weigher = weigher;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.keyMask = keyMask;
+    }
+
+    // 缓存SAESCipher（轮密钥），只按条目数限制
+    public static SAESKeyCache<SAESCipher> ciphers(int maxEntries) {
+        return new SAESKeyCache<>(SAESCipher::new, cipher -> CIPHER_BYTES, maxEntries, Long.MAX_VALUE);
+    }
+
+    // 缓存SAESEngines.create创建的当前批量引擎，只按条目数限制
+    public static SAESKeyCache<SAESBlockCipher> engines(int maxEntries) {
+        return new SAESKeyCache<>(SAESEngines::create, cipher -> CIPHER_BYTES, maxEntries, Long.MAX_VALUE);
+    }
+
+    // 缓存SAESCodebook（完整码本），按内存上限限制
+    public static SAESKeyCache<SAESCodebook> codebooks(long maxBytes) {
+        return new SAESKeyCache<>(SAESCodebook::build, SAESCodebook::getMemoryBytes, Integer.MAX_VALUE, maxBytes);
+    }
+
+
+    // 获取密钥对应的对象，不存在时构建并放入缓存；同一密钥正在被其他线程构建时等待其结果
+    public V get(int key) {
+        Integer boxedKey = key & keyMask;
+        FutureTask<V> task;
+        boolean owner = false;
+        lock.lock();
+        try {
+            V value = entries.get(boxedKey);
+            if (value != null) {
+                hits.increment();
+                return value;
+            }
+            task = loading.get(boxedKey);
+            if (task == null) {
+                task = new FutureTask<>(() -> loader.apply(boxedKey));
+                loading.put(boxedKey, task);
+                owner = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!owner) {
+            hits.increment();
+            return await(task);
+        }
+        misses.increment();
+        task.run();
+        lock.lock();
+        try {
+            loading.remove(boxedKey);
+            V loaded = await(task);
+            entries.put(boxedKey, loaded);
+            currentBytes += weigher.applyAsLong(loaded);
+            evictIfNeeded();
+            return loaded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 等待构建任务完成；构建抛出的异常原样抛给每个等待的线程
+    private static <V> V await(FutureTask<V> task) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                    if (cause instanceof Error) throw (Error) cause;
+                    throw new IllegalStateException("缓存值构建失败", cause);
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    // 从缓存中移除指定密钥
+    public void invalidate(int key) {
+        lock.lock();
+        try {
+            V removed = entries.remove(key & keyMask);
+            if (removed != null) {
+                currentBytes -= weigher.applyAsLong(removed);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 清空缓存（统计计数保留）
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            currentBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 按访问顺序从最久未使用的条目开始淘汰，最新放入的条目至少保留一个
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<Integer, V>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || currentBytes > maxBytes) && entries.size() > 1) {
+            Map.Entry<Integer, V> eldest = it.next();
+            currentBytes -= weigher.applyAsLong(eldest.getValue());
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 当前缓存占用的估算内存（字节）
+    public long getMemoryBytes() {
+        lock.lock();
+        try {
+            return currentBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    // 命中率，未发生过查询时为0
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SAESKeyCache[size=%d, memory=%dKB, hits=%d, misses=%d, evictions=%d, hitRate=%.2f%%]",
+                size(), getMemoryBytes() / 1024, getHitCount(), getMissCount(), getEvictionCount(), getHitRate() * 100);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,161 @@
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * 单密钥S-AES的16位密钥穷举搜索引擎
+ * 已知明文：用位切片引擎一次测试64个连续密钥（64个密钥的轮密钥切片一次扩展完成），
+ * 各明密文对的匹配掩码逐对相与，掩码为0即整组提前放弃。
+ * 唯密文：对每个密钥逐块解密并用明文判定条件检查，首个不满足的分组即放弃该密钥；
+ * 轮密钥取自预先扩展好的全部密钥表，搜索过程中不做密钥扩展也不分配对象。
+ * 全部方法返回与条件一致的所有密钥（SAESKeySet，密钥为0~0xFFFF），按密钥区间分块在ForkJoinPool中并行。
+ */
+public final class SAESKeySearch {
+    private static final int KEY_COUNT = SAESMitmIndex.KEY_COUNT;
+    // 每个并行分块处理的密钥数（64的倍数）
+    private static final int CHUNK_KEYS = 1024;
+
+    // 分组的两个字节都是可打印ASCII字符（0x20~0x7E）
+    public static final IntPredicate PRINTABLE_ASCII_BLOCK =
+            block -> isPrintable((block >> 8) & 0xFF) && isPrintable(block & 0xFF);
+
+    private SAESKeySearch() {
+    }
+
+    // 已知明文搜索（公共ForkJoinPool）
+    public static SAESKeySet knownPlaintext(int[] plaintexts16, int[] ciphertexts16) {
+        return knownPlaintext(plaintexts16, ciphertexts16, ForkJoinPool.commonPool());
+    }
+
+    // 已知明文搜索：返回满足全部E(K, Pi) = Ci的密钥
+    public static SAESKeySet knownPlaintext(int[] plaintexts16, int[] ciphertexts16, ForkJoinPool pool) {
+        SAESMitm.checkPairs(plaintexts16, ciphertexts16);
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, 0, KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            long[] keySlices = new long[16];
+            long[] roundKeySlices = new long[48];
+            long[] work = new long[16];
+            SAESKeySet.Builder local = new SAESKeySet.Builder();
+            for (int keyBase = (int) from; keyBase < to; keyBase += 64) {
+                SAESBitsliced.keyRangeSlices(keyBase, keySlices);
+                SAESBitsliced.expandKeySlices(keySlices, roundKeySlices);
+                long mask = -1L;
+                for (int i = 0; i < plaintexts16.length && mask != 0; i++) {
+                    mask &= SAESBitsliced.encryptMatch(plaintexts16[i], ciphertexts16[i], roundKeySlices, work);
+                }
+                while (mask != 0) {
+                    local.add(keyBase + Long.numberOfTrailingZeros(mask));
+                    mask &= mask - 1;
+                }
+            }
+            synchronized (result) {
+                result.addAll(local);
+            }
+        });
+        return result.build();
+    }
+
+    // 唯密文搜索（公共ForkJoinPool）
+    public static SAESKeySet ciphertextOnly(int[] ciphertexts16, IntPredicate plaintextBlock) {
+        return ciphertextOnly(ciphertexts16, plaintextBlock, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 唯密文搜索：返回使每个解密分组都满足plaintextBlock的密钥
+     * 如PRINTABLE_ASCII_BLOCK：解密结果全是可打印ASCII。密文分组越多，误报越少。
+     */
+    public static SAESKeySet ciphertextOnly(int[] ciphertexts16, IntPredicate plaintextBlock, ForkJoinPool pool) {
+        if (ciphertexts16 == null || ciphertexts16.length == 0) {
+            throw new IllegalArgumentException("至少需要一个密文分组");
+        }
+        long[] roundKeys = SAESMitm.allRoundKeys();
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, 0, KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            SAESKeySet.Builder local = new SAESKeySet.Builder();
+            for (int key = (int) from; key < to; key++) {
+                if (allBlocksMatch(ciphertexts16, roundKeys[key], plaintextBlock)) {
+                    local.add(key);
+                }
+            }
+            synchronized (result) {
+                result.addAll(local);
+            }
+        });
+        return result.build();
+    }
+
+    /**
+     * 唯密文搜索（字符串形式）：对每个密钥计算SAES.decryptStr(ciphertext, key)，返回结果满足plaintext的密钥
+     * blockFilter不为null时先按分组快速过滤，但不检查最后一个分组：它含有PKCS#7填充字节（01或02 02），
+     * 用PRINTABLE_ASCII_BLOCK之类的过滤器检查会把正确密钥也排除掉。PKCS#7填充无效的密钥直接排除，
+     * 只对通过的密钥构造去除填充后的字符串再调用plaintext判定，最后一个分组中的明文字节由plaintext检查。
+     */
+    public static SAESKeySet ciphertextOnly(String ciphertext, IntPredicate blockFilter, Predicate<String> plaintext,
+                                            ForkJoinPool pool) {
+        byte[] data = ciphertext.getBytes(StandardCharsets.ISO_8859_1);
+        if ((data.length & 1) != 0) return SAESKeySet.empty();
+        int[] blocks = new int[data.length / 2];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = ((data[2 * i] & 0xFF) << 8) | (data[2 * i + 1] & 0xFF);
+        }
+        long[] roundKeys = SAESMitm.allRoundKeys();
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, 0, KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            byte[] plain = new byte[data.length];
+            SAESKeySet.Builder local = new SAESKeySet.Builder();
+            for (int key = (int) from; key < to; key++) {
+                if (blockFilter != null && !allBlocksMatch(blocks, blocks.length - 1, roundKeys[key], blockFilter)) {
+                    continue;
+                }
+                for (int i = 0; i < blocks.length; i++) {
+                    int block = SAESTables.decrypt(blocks[i], roundKeys[key]);
+                    plain[2 * i] = (byte) (block >>> 8);
+                    plain[2 * i + 1] = (byte) block;
+                }
+                int len = SAESPadding.unpaddedLength(plain, 0, plain.length);
+                if (len >= 0 && plaintext.test(new String(plain, 0, len, StandardCharsets.UTF_8))) {
+                    local.add(key);
+                }
+            }
+            synchronized (result) {
+                result.addAll(local);
+            }
+        });
+        return result.build();
+    }
+
+    // 字符串唯密文搜索：解密结果全为可打印ASCII
+    public static SAESKeySet printableAscii(String ciphertext) {
+        return ciphertextOnly(ciphertext, null, SAESKeySearch::isPrintableAscii, ForkJoinPool.commonPool());
+    }
+
+    // 字符串非空且全部字符为可打印ASCII
+    public static boolean isPrintableAscii(String text) {
+        if (text.isEmpty()) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (!isPrintable(text.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    // 逐块解密并检查，遇到不满足的分组立即返回
+    private static boolean allBlocksMatch(int[] ciphertexts16, long roundKeys, IntPredicate plaintextBlock) {
+        return allBlocksMatch(ciphertexts16, ciphertexts16.length, roundKeys, plaintextBlock);
+    }
+
+    // 只检查前count个分组
+    private static boolean allBlocksMatch(int[] ciphertexts16, int count, long roundKeys,
+                                          IntPredicate plaintextBlock) {
+        for (int i = 0; i < count; i++) {
+            if (!plaintextBlock.test(SAESTables.decrypt(ciphertexts16[i], roundKeys))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPrintable(int c) {
+        return c >= 0x20 && c <= 0x7E;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 紧凑的32位密钥集合
+ * 内部为按无符号升序排列的int[]，不装箱；用于返回中间相遇攻击等得到的全部候选密钥。
+ */
+public final class SAESKeySet {
+    private static final SAESKeySet EMPTY = new SAESKeySet(new int[0]);
+
+    private final int[] keys;
+
+    private SAESKeySet(int[] sortedKeys) {
+        this.keys = sortedKeys;
+    }
+
+    public static SAESKeySet empty() {
+        return EMPTY;
+    }
+
+    // 由任意顺序、可能重复的密钥数组构建（会复制数组）
+    public static SAESKeySet of(int[] keys, int count) {
+        int[] sorted = Arrays.copyOf(keys, count);
+        // 翻转符号位后按有符号排序，即得无符号升序
+        for (int i = 0; i < count; i++) sorted[i] ^= Integer.MIN_VALUE;
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || sorted[i] != sorted[unique - 1]) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+        for (int i = 0; i < unique; i++) sorted[i] ^= Integer.MIN_VALUE;
+        return new SAESKeySet(unique == count ? sorted : Arrays.copyOf(sorted, unique));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    // 第index个密钥（无符号升序）
+    public int get(int index) {
+        return keys[index];
+    }
+
+    public boolean contains(int key) {
+        int low = 0, high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = Integer.compareUnsigned(keys[mid], key);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int key : keys) {
+            action.accept(key);
+        }
+    }
+
+    public int[] toArray() {
+        return keys.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("SAESKeySet[size=").append(keys.length);
+        for (int i = 0; i < Math.min(keys.length, 8); i++) {
+            sb.append(i == 0 ? ": " : ", ").append(String.format("%08X", keys[i]));
+        }
+        if (keys.length > 8) sb.append(", ...");
+        return sb.append(']').toString();
+    }
+
+
+    // 逐个追加密钥的构建器，容量按需翻倍
+    public static final class Builder {
+        private int[] buffer = new int[16];
+        private int count;
+
+        public Builder add(int key) {
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, count * 2);
+            }
+            buffer[count++] = key;
+            return this;
+        }
+
+        // 追加另一个构建器中的全部密钥
+        public Builder addAll(Builder other) {
+            if (count + other.count > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + other.count));
+            }
+            System.arraycopy(other.buffer, 0, buffer, count, other.count);
+            count += other.count;
+            return this;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public SAESKeySet build() {
+            return count == 0 ? EMPTY : of(buffer, count);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,143 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * 双重加密的中间相遇攻击引擎
+ * 用第一对明密文建立前向索引并枚举所有满足E(K2, E(K1, P0)) = C0的候选(K1, K2)，
+ * 每个候选立即用其余明密文对逐对验证（任一对不符即放弃），不会物化2^32个密钥。
+ * 并行版本把前向、后向两个阶段按密钥区间分块放到ForkJoinPool中执行，支持进度回调与取消。
+ */
+public final class SAESMitm {
+    // 每个并行分块处理的密钥数
+    private static final int CHUNK_KEYS = 1024;
+
+    private SAESMitm() {
+    }
+
+    // 流式输出全部与N对明密文一致的32位密钥（K1<<16 | K2），按K2升序、同一K2下K1升序
+    public static void forEachKey(int[] plaintexts16, int[] ciphertexts16, IntConsumer consumer) {
+        checkPairs(plaintexts16, ciphertexts16);
+        long[] roundKeys = allRoundKeys();
+        SAESMitmIndex forwardIndex = SAESMitmIndex.build(plaintexts16[0]);
+        for (int k2 = 0; k2 < SAESMitmIndex.KEY_COUNT; k2++) {
+            matchK2(forwardIndex, roundKeys, plaintexts16, ciphertexts16, k2, consumer);
+        }
+    }
+
+    // 收集全部与N对明密文一致的32位密钥（在公共ForkJoinPool中并行执行）
+    public static SAESKeySet findKeys(int[] plaintexts16, int[] ciphertexts16) {
+        return findKeys(plaintexts16, ciphertexts16, ForkJoinPool.commonPool(), null, null);
+    }
+
+    /**
+     * 并行、可取消的中间相遇攻击
+     * 前向阶段并行计算E(P0, K1)后计数排序建索引，后向阶段按K2分块并行匹配并过滤。
+     * 每完成一个分块通过listener报告进度；token被取消时抛出CancellationException。
+     * listener和token均可为null。
+     */
+    public static SAESKeySet findKeys(int[] plaintexts16, int[] ciphertexts16, ForkJoinPool pool,
+                                      SAESProgressListener listener, SAESCancellationToken token) {
+        checkPairs(plaintexts16, ciphertexts16);
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, 2L * SAESMitmIndex.KEY_COUNT);
+        long[] roundKeys = allRoundKeys();
+
+        // 前向阶段：forward[K1] = E(P0, K1)
+        tracker.setPhase("前向计算E(P, K1)");
+        int[] forward = new int[SAESMitmIndex.KEY_COUNT];
+        int plaintext0 = plaintexts16[0];
+        SAESParallel.forEachChunk(pool, 0, SAESMitmIndex.KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            tracker.checkCancelled();
+            for (int k1 = (int) from; k1 < to; k1++) {
+                forward[k1] = SAESTables.encrypt(plaintext0, roundKeys[k1]);
+            }
+            tracker.advance(to - from, 0);
+        });
+        SAESMitmIndex forwardIndex = SAESMitmIndex.fromForward(plaintext0 & 0xFFFF, forward);
+        return matchBackward(forwardIndex, roundKeys, plaintexts16, ciphertexts16, pool, tracker);
+    }
+
+    /**
+     * 使用已有的前向索引（如SAESMitmTableStore中的映射文件）执行攻击，跳过前向阶段
+     * forwardIndex必须对应第一对明密文的明文。
+     */
+    public static SAESKeySet findKeys(SAESMitmIndex forwardIndex, int[] plaintexts16, int[] ciphertexts16,
+                                      ForkJoinPool pool, SAESProgressListener listener, SAESCancellationToken token) {
+        checkPairs(plaintexts16, ciphertexts16);
+        if (forwardIndex.getPlaintext() != (plaintexts16[0] & 0xFFFF)) {
+            throw new IllegalArgumentException("前向索引的明文与第一对明文不一致");
+        }
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, SAESMitmIndex.KEY_COUNT);
+        return matchBackward(forwardIndex, allRoundKeys(), plaintexts16, ciphertexts16, pool, tracker);
+    }
+
+    // 后向阶段：按K2分块匹配中间值，每块先收集到局部构建器再合并
+    private static SAESKeySet matchBackward(SAESMitmIndex forwardIndex, long[] roundKeys, int[] plaintexts16,
+                                            int[] ciphertexts16, ForkJoinPool pool, SAESProgressTracker tracker) {
+        tracker.setPhase("后向匹配D(C, K2)");
+        SAESKeySet.Builder result = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, 0, SAESMitmIndex.KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            tracker.checkCancelled();
+            SAESKeySet.Builder local = new SAESKeySet.Builder();
+            for (int k2 = (int) from; k2 < to; k2++) {
+                matchK2(forwardIndex, roundKeys, plaintexts16, ciphertexts16, k2, local::add);
+            }
+            synchronized (result) {
+                result.addAll(local);
+            }
+            tracker.advance(to - from, local.size());
+        });
+        return result.build();
+    }
+
+    // 处理单个K2：查前向索引得到候选K1，再用第2..N对过滤；返回该K2下的候选数（过滤前）
+    static int matchK2(SAESMitmIndex forwardIndex, long[] roundKeys, int[] plaintexts16, int[] ciphertexts16,
+                       int k2, IntConsumer consumer) {
+        long roundKeys2 = roundKeys[k2];
+        int midVal = SAESTables.decrypt(ciphertexts16[0], roundKeys2);
+        int start = forwardIndex.bucketStart(midVal);
+        int end = forwardIndex.bucketEnd(midVal);
+        for (int i = start; i < end; i++) {
+            int k1 = forwardIndex.keyAt(i);
+            if (matchesAll(roundKeys[k1], roundKeys2, plaintexts16, ciphertexts16)) {
+                consumer.accept((k1 << 16) | k2);
+            }
+        }
+        return end - start;
+    }
+
+    // 候选密钥是否满足第2..N对明密文（逐对检查，遇到不符立即返回）
+    static boolean matchesAll(long roundKeys1, long roundKeys2, int[] plaintexts16, int[] ciphertexts16) {
+        for (int i = 1; i < plaintexts16.length; i++) {
+            int mid = SAESTables.encrypt(plaintexts16[i], roundKeys1);
+            if (SAESTables.encrypt(mid, roundKeys2) != (ciphertexts16[i] & 0xFFFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 全部65536个密钥的打包轮密钥（512KB，只读共享），避免在内层循环重复扩展
+    static long[] allRoundKeys() {
+        return RoundKeyHolder.ROUND_KEYS;
+    }
+
+    // 首次使用时才计算全部轮密钥
+    private static final class RoundKeyHolder {
+        static final long[] ROUND_KEYS = new long[SAESMitmIndex.KEY_COUNT];
+
+        static {
+            for (int key = 0; key < ROUND_KEYS.length; key++) {
+                ROUND_KEYS[key] = SAESTables.expandKey(key);
+            }
+        }
+    }
+
+    static void checkPairs(int[] plaintexts16, int[] ciphertexts16) {
+        if (plaintexts16 == null || ciphertexts16 == null || plaintexts16.length == 0) {
+            throw new IllegalArgumentException("至少需要一对明密文");
+        }
+        if (plaintexts16.length != ciphertexts16.length) {
+            throw new IllegalArgumentException("明文与密文数量必须一致");
+        }
+    }
+}
\ No newline at end of file
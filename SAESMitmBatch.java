@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 批量中间相遇攻击服务：把大量单对(P, C)查询合并处理
+ * submit()只登记查询并立即返回CompletableFuture，flush()把已登记的查询按明文分组：
+ * 每个明文的前向索引只构建（或从SAESMitmTableStore映射）一次，每个密文的后向表D(C, K2)也只计算一次，
+ * 同组的密文在同一遍K2扫描中一起匹配；一组密文过多时按后向表缓存的内存上限分片，每片一遍扫描，
+ * 因此同时持有的后向表不超过该上限。每片完成后立即完成其中各查询的future，无需等整批结束。
+ * 前向索引和后向表都放在按内存上限淘汰的SAESKeyCache中，跨批次复用。重复提交的同一(P, C)只计算一次。
+ */
+public final class SAESMitmBatch {
+    // 每个并行分块处理的K2数
+    private static final int CHUNK_KEYS = 1024;
+    // 一张后向表：char[65536]
+    private static final long BACKWARD_TABLE_BYTES = 2L * SAESMitmIndex.KEY_COUNT;
+
+    private final ForkJoinPool pool;
+    private final SAESKeyCache<SAESMitmIndex> forwardCache;
+    private final SAESKeyCache<char[]> backwardCache;
+    // 每遍K2扫描至多匹配的密文数（后向表内存上限可容纳的表数）
+    private final int sliceCiphertexts;
+
+    private final List<Query> pending = new ArrayList<>();
+    private final LongAdder totalQueries = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    // 使用公共ForkJoinPool，前向索引与后向表各缓存至多64MB
+    public SAESMitmBatch() {
+        this(ForkJoinPool.commonPool(), null, 64L << 20, 64L << 20);
+    }
+
+    /**
+     * @param pool          执行匹配的线程池
+     * @param store         持久化的前向索引，为null时在内存中构建
+     * @param forwardBytes  前向索引缓存的内存上限（每个明文约512KB）
+     * @param backwardBytes 后向表缓存的内存上限（每个密文128KB）
+     */
+    public SAESMitmBatch(ForkJoinPool pool, SAESMitmTableStore store, long forwardBytes, long backwardBytes) {
+        this.pool = pool;
+        this.forwardCache = new SAESKeyCache<>(plaintext16 -> loadForward(store, plaintext16),
+                index -> SAESMitmIndex.SERIALIZED_BYTES, Integer.MAX_VALUE, forwardBytes);
+        this.backwardCache = new SAESKeyCache<>(SAESMitmBatch::backwardTable,
+                table -> BACKWARD_TABLE_BYTES, Integer.MAX_VALUE, backwardBytes);
+        this.sliceCiphertexts = (int) Math.max(1, Math.min(Integer.MAX_VALUE, backwardBytes / BACKWARD_TABLE_BYTES));
+    }
+
+    // 登记一个查询，结果为与(P, C)一致的全部32位密钥，在flush()处理到其分组时完成
+    public CompletableFuture<SAESKeySet> submit(int plaintext16, int ciphertext16) {
+        Query query = new Query(plaintext16 & 0xFFFF, ciphertext16 & 0xFFFF);
+        synchronized (pending) {
+            pending.add(query);
+        }
+        return query.result;
+    }
+
+    // 按下标一一对应登记多个查询
+    public List<CompletableFuture<SAESKeySet>> submitAll(int[] plaintexts16, int[] ciphertexts16) {
+        SAESMitm.checkPairs(plaintexts16, ciphertexts16);
+        List<CompletableFuture<SAESKeySet>> results = new ArrayList<>(plaintexts16.length);
+        for (int i = 0; i < plaintexts16.length; i++) {
+            results.add(submit(plaintexts16[i], ciphertexts16[i]));
+        }
+        return results;
+    }
+
+    // 尚未处理的查询数
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 在线程池中异步处理目前登记的全部查询，返回本批的吞吐量报告
+     * 各查询的future在其分组（或分片）完成时即完成；某片出错只影响该片的查询。
+     * 出现Error（如OutOfMemoryError）时整批中止，尚未完成的查询全部以该Error失败，不会一直等待。
+     */
+    public CompletableFuture<Report> flush() {
+        List<Query> batch;
+        synchronized (pending) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+        }
+        return CompletableFuture.supplyAsync(() -> process(batch), pool);
+    }
+
+    private Report process(List<Query> batch) {
+        long startNanos = System.nanoTime();
+        // 明文 → 密文 → 该(P, C)的全部查询
+        Map<Integer, Map<Integer, List<Query>>> groups = new TreeMap<>();
+        Set<Integer> ciphertexts = new HashSet<>();
+        for (Query query : batch) {
+            groups.computeIfAbsent(query.plaintext16, p -> new TreeMap<>())
+                    .computeIfAbsent(query.ciphertext16, c -> new ArrayList<>())
+                    .add(query);
+            ciphertexts.add(query.ciphertext16);
+        }
+        int uniqueQueries = 0;
+        try {
+            for (Map.Entry<Integer, Map<Integer, List<Query>>> group : groups.entrySet()) {
+                uniqueQueries += group.getValue().size();
+                List<Map.Entry<Integer, List<Query>>> byCiphertext = new ArrayList<>(group.getValue().entrySet());
+                for (int from = 0; from < byCiphertext.size(); from += sliceCiphertexts) {
+                    List<Map.Entry<Integer, List<Query>>> slice =
+                            byCiphertext.subList(from, Math.min(byCiphertext.size(), from + sliceCiphertexts));
+                    try {
+                        matchSlice(group.getKey(), slice);
+                    } catch (RuntimeException e) {
+                        for (Map.Entry<Integer, List<Query>> entry : slice) {
+                            for (Query query : entry.getValue()) query.result.completeExceptionally(e);
+                        }
+                    }
+                }
+            }
+        } catch (Throwable t) {
+            // 已完成的future不受影响，其余查询以同一异常失败后再抛出
+            for (Query query : batch) query.result.completeExceptionally(t);
+            throw t;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        totalQueries.add(batch.size());
+        totalNanos.add(elapsedNanos);
+        return new Report(batch.size(), uniqueQueries, groups.size(), ciphertexts.size(), elapsedNanos);
+    }
+
+    // 同一明文下的一片密文：一遍K2扫描，每个K2依次查各密文的中间值
+    private void matchSlice(int plaintext16, List<Map.Entry<Integer, List<Query>>> slice) {
+        SAESMitmIndex forwardIndex = forwardCache.get(plaintext16);
+        int count = slice.size();
+        char[][] backward = new char[count][];
+        int n = 0;
+        for (Map.Entry<Integer, List<Query>> entry : slice) {
+            backward[n++] = backwardCache.get(entry.getKey());
+        }
+
+        SAESKeySet.Builder[] results = new SAESKeySet.Builder[count];
+        for (int i = 0; i < count; i++) results[i] = new SAESKeySet.Builder();
+        SAESParallel.forEachChunk(pool, 0, SAESMitmIndex.KEY_COUNT, CHUNK_KEYS, (from, to) -> {
+            SAESKeySet.Builder[] local = new SAESKeySet.Builder[count];
+            for (int i = 0; i < count; i++) local[i] = new SAESKeySet.Builder();
+            for (int k2 = (int) from; k2 < to; k2++) {
+                for (int i = 0; i < count; i++) {
+                    int mid = backward[i][k2];
+                    int end = forwardIndex.bucketEnd(mid);
+                    for (int j = forwardIndex.bucketStart(mid); j < end; j++) {
+                        local[i].add((forwardIndex.keyAt(j) << 16) | k2);
+                    }
+                }
+            }
+            synchronized (results) {
+                for (int i = 0; i < count; i++) results[i].addAll(local[i]);
+            }
+        });
+
+        n = 0;
+        for (Map.Entry<Integer, List<Query>> entry : slice) {
+            SAESKeySet keys = results[n++].build();
+            for (Query query : entry.getValue()) query.result.complete(keys);
+        }
+    }
+
+    // 后向表：table[K2] = D(C, K2)
+    private static char[] backwardTable(int ciphertext16) {
+        long[] roundKeys = SAESMitm.allRoundKeys();
+        char[] table = new char[SAESMitmIndex.KEY_COUNT];
+        for (int k2 = 0; k2 < table.length; k2++) {
+            table[k2] = (char) SAESTables.decrypt(ciphertext16, roundKeys[k2]);
+        }
+        return table;
+    }
+
+    private static SAESMitmIndex loadForward(SAESMitmTableStore store, int plaintext16) {
+        if (store == null) return SAESMitmIndex.build(plaintext16);
+        try {
+            return store.getOrBuild(plaintext16);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 自创建以来的累计吞吐量（查询/秒）
+    public double getQueriesPerSecond() {
+        long nanos = totalNanos.sum();
+        return nanos == 0 ? 0 : totalQueries.sum() * 1e9 / nanos;
+    }
+
+    public SAESKeyCache<SAESMitmIndex> getForwardCache() {
+        return forwardCache;
+    }
+
+    public SAESKeyCache<char[]> getBackwardCache() {
+        return backwardCache;
+    }
+
+    private static final class Query {
+        final int plaintext16;
+        final int ciphertext16;
+        final CompletableFuture<SAESKeySet> result = new CompletableFuture<>();
+
+        Query(int plaintext16, int ciphertext16) {
+            this.plaintext16 = plaintext16;
+            this.ciphertext16 = ciphertext16;
+        }
+    }
+
+    // 一批查询的处理统计
+    public static final class Report {
+        private final int queries;
+        private final int uniqueQueries;
+        private final int distinctPlaintexts;
+        private final int distinctCiphertexts;
+        private final long elapsedNanos;
+
+        Report(int queries, int uniqueQueries, int distinctPlaintexts, int distinctCiphertexts, long elapsedNanos) {
+            this.queries = queries;
+            this.uniqueQueries = uniqueQueries;
+            this.distinctPlaintexts = distinctPlaintexts;
+            this.distinctCiphertexts = distinctCiphertexts;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getQueries() {
+            return queries;
+        }
+
+        // 去重后的(P, C)数
+        public int getUniqueQueries() {
+            return uniqueQueries;
+        }
+
+        // 不同明文数，即前向索引的使用次数
+        public int getDistinctPlaintexts() {
+            return distinctPlaintexts;
+        }
+
+        // 不同密文数，即后向表的使用次数
+        public int getDistinctCiphertexts() {
+            return distinctCiphertexts;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double getQueriesPerSecond() {
+            return elapsedNanos == 0 ? 0 : queries * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("批量中间相遇攻击：查询%d个（去重后%d个），明文%d个，密文%d个，耗时%.1fms，吞吐量%.1f查询/秒",
+                    queries, uniqueQueries, distinctPlaintexts, distinctCiphertexts,
+                    elapsedNanos / 1e6, getQueriesPerSecond());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,123 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * 中间相遇攻击的前向索引：中间值 → K1列表
+ * 对固定明文P计算全部65536个E(P, K1)，再用计数排序按中间值分桶，
+ * 桶起点存于bucketStart[65537]，K1按中间值顺序存于keys[65536]，桶内K1升序，全程不装箱。
+ * 之后按中间值查找K1是O(1)。
+ * 两张表以IntBuffer访问，既可以是堆内数组，也可以是内存映射文件的零拷贝视图（见SAESMitmTableStore）。
+ */
+public final class SAESMitmIndex {
+    static final int KEY_COUNT = 0x10000;
+
+    // 序列化格式：16字节头（魔数、版本、明文、保留）+ bucketStart[65537] + keys[65536]，小端序
+    static final int MAGIC = 0x4D49544D; // "MITM"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int SERIALIZED_BYTES = HEADER_BYTES + 4 * (KEY_COUNT + 1 + KEY_COUNT);
+
+    private final int plaintext16;
+    private final IntBuffer bucketStart;
+    private final IntBuffer keys;
+
+    private SAESMitmIndex(int plaintext16, IntBuffer bucketStart, IntBuffer keys) {
+        this.plaintext16 = plaintext16;
+        this.bucketStart = bucketStart;
+        this.keys = keys;
+    }
+
+    // 为明文P构建前向索引
+    public static SAESMitmIndex build(int plaintext16) {
+        int[] forward = new int[KEY_COUNT];
+        for (int k1 = 0; k1 < KEY_COUNT; k1++) {
+            forward[k1] = SAESTables.encrypt16(plaintext16, k1);
+        }
+        return fromForward(plaintext16 & 0xFFFF, forward);
+    }
+
+    // 由前向表forward[K1] = E(P, K1)做计数排序
+    static SAESMitmIndex fromForward(int plaintext16, int[] forward) {
+        int[] bucketStart = new int[KEY_COUNT + 1];
+        for (int k1 = 0; k1 < KEY_COUNT; k1++) {
+            bucketStart[forward[k1] + 1]++;
+        }
+        for (int v = 0; v < KEY_COUNT; v++) {
+            bucketStart[v + 1] += bucketStart[v];
+        }
+        int[] keys = new int[KEY_COUNT];
+        int[] next = new int[KEY_COUNT];
+        System.arraycopy(bucketStart, 0, next, 0, KEY_COUNT);
+        for (int k1 = 0; k1 < KEY_COUNT; k1++) {
+            keys[next[forward[k1]]++] = k1;
+        }
+        return new SAESMitmIndex(plaintext16, IntBuffer.wrap(bucketStart), IntBuffer.wrap(keys));
+    }
+
+    /**
+     * 直接在buffer上建立索引视图（不复制数据），buffer须为writeTo写出的格式
+     * 用于内存映射文件：两张表留在堆外，由操作系统页缓存按需载入。
+     */
+    static SAESMitmIndex fromBuffer(ByteBuffer buffer) {
+        ByteBuffer buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() != SERIALIZED_BYTES) {
+            throw new IllegalArgumentException("前向索引长度错误：" + buf.remaining() + "字节");
+        }
+        int base = buf.position();
+        if (buf.getInt(base) != MAGIC || buf.getInt(base + 4) != VERSION) {
+            throw new IllegalArgumentException("不是有效的前向索引数据（魔数或版本不符）");
+        }
+        int plaintext16 = buf.getInt(base + 8);
+        buf.position(base + HEADER_BYTES);
+        IntBuffer ints = buf.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        ints.limit(KEY_COUNT + 1);
+        IntBuffer bucketStart = ints.slice();
+        ints.limit(KEY_COUNT + 1 + KEY_COUNT).position(KEY_COUNT + 1);
+        IntBuffer keys = ints.slice();
+        return new SAESMitmIndex(plaintext16, bucketStart, keys);
+    }
+
+    // 按fromBuffer的格式写入buffer的当前位置（写入SERIALIZED_BYTES字节）
+    void writeTo(ByteBuffer buffer) {
+        ByteBuffer buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(plaintext16).putInt(0);
+        IntBuffer ints = buf.asIntBuffer();
+        for (int i = 0; i <= KEY_COUNT; i++) {
+            ints.put(bucketStart.get(i));
+        }
+        for (int i = 0; i < KEY_COUNT; i++) {
+            ints.put(keys.get(i));
+        }
+        buffer.position(buffer.position() + SERIALIZED_BYTES);
+    }
+
+    public int getPlaintext() {
+        return plaintext16;
+    }
+
+    // 中间值mid对应的K1在keys中的起始下标
+    public int bucketStart(int mid16) {
+        return bucketStart.get(mid16);
+    }
+
+    // 中间值mid对应的K1在keys中的结束下标（不含）
+    public int bucketEnd(int mid16) {
+        return bucketStart.get(mid16 + 1);
+    }
+
+    public int keyAt(int index) {
+        return keys.get(index);
+    }
+
+    // 满足E(P, K1) = mid的最小K1，不存在时返回-1
+    public int firstKey(int mid16) {
+        int start = bucketStart.get(mid16);
+        return start < bucketStart.get(mid16 + 1) ? keys.get(start) : -1;
+    }
+
+    // 两张表是否位于堆外（如内存映射文件）
+    public boolean isOffHeap() {
+        return keys.isDirect();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,163 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 中间相遇攻击前向索引的持久化存储（按明文分文件）
+ * 每个明文P对应目录下一个约512KB的文件mitm-PPPP.idx，保存E(P, K1)按中间值分桶后的索引。
+ * 载入时以只读方式内存映射，索引直接读取映射区域（零拷贝、不占Java堆），
+ * 之后对同一明文的查询完全跳过前向阶段。适合反复攻击固定协议头等已知明文的场景。
+ * 线程安全；同一明文的映射在本对象内复用。
+ */
+public final class SAESMitmTableStore {
+    private final Path directory;
+    private final ConcurrentHashMap<Integer, SAESMitmIndex> mapped = new ConcurrentHashMap<>();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    public SAESMitmTableStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // 明文P对应的索引文件路径
+    public Path pathFor(int plaintext16) {
+        return directory.resolve(String.format("mitm-%04X.idx", plaintext16 & 0xFFFF));
+    }
+
+    public boolean contains(int plaintext16) {
+        return Files.isRegularFile(pathFor(plaintext16));
+    }
+
+    /**
+     * 映射已存在的索引文件，不存在时返回null
+     * 文件内容与明文不符或格式损坏时抛出IOException。
+     */
+    public SAESMitmIndex load(int plaintext16) throws IOException {
+        Integer key = plaintext16 & 0xFFFF;
+        SAESMitmIndex index = mapped.get(key);
+        if (index != null) return index;
+        Path path = pathFor(key);
+        if (!Files.isRegularFile(path)) return null;
+
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            index = SAESMitmIndex.fromBuffer(buffer);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("索引文件损坏：" + path + "（" + e.getMessage() + "）", e);
+        }
+        if (index.getPlaintext() != key) {
+            throw new IOException("索引文件与明文不符：" + path);
+        }
+        loads.incrementAndGet();
+        SAESMitmIndex previous = mapped.putIfAbsent(key, index);
+        return previous != null ? previous : index;
+    }
+
+    // 载入明文P的索引，不存在时先构建并写入文件
+    public SAESMitmIndex getOrBuild(int plaintext16) throws IOException {
+        SAESMitmIndex index = load(plaintext16);
+        if (index != null) return index;
+        write(SAESMitmIndex.build(plaintext16));
+        return load(plaintext16);
+    }
+
+    /**
+     * 批量预构建：为plaintexts中尚无文件的明文并行构建并写入索引
+     * 每完成一个明文通过listener报告进度；token被取消时抛出CancellationException（已写完的文件保留）。
+     * 返回本次新构建的文件数。
+     */
+    public int prebuild(int[] plaintexts16, ForkJoinPool pool, SAESProgressListener listener,
+                        SAESCancellationToken token) {
+        int[] distinct = Arrays.stream(plaintexts16).map(p -> p & 0xFFFF).distinct().toArray();
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, distinct.length);
+        tracker.setPhase("预构建前向索引");
+        AtomicLong built = new AtomicLong();
+        SAESParallel.forEachChunk(pool, 0, distinct.length, 1, (from, to) -> {
+            tracker.checkCancelled();
+            for (int i = (int) from; i < to; i++) {
+                if (!contains(distinct[i])) {
+                    try {
+                        write(SAESMitmIndex.build(distinct[i]));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    built.incrementAndGet();
+                }
+            }
+            tracker.advance(to - from, 0);
+        });
+        return (int) built.get();
+    }
+
+    // 用明文第一对对应的持久化索引执行攻击（索引不存在时先构建），跳过前向阶段
+    public SAESKeySet findKeys(int[] plaintexts16, int[] ciphertexts16, ForkJoinPool pool,
+                               SAESProgressListener listener, SAESCancellationToken token) throws IOException {
+        SAESMitm.checkPairs(plaintexts16, ciphertexts16);
+        SAESMitmIndex forwardIndex = getOrBuild(plaintexts16[0]);
+        return SAESMitm.findKeys(forwardIndex, plaintexts16, ciphertexts16, pool, listener, token);
+    }
+
+    public SAESKeySet findKeys(int[] plaintexts16, int[] ciphertexts16) throws IOException {
+        return findKeys(plaintexts16, ciphertexts16, ForkJoinPool.commonPool(), null, null);
+    }
+
+    // 删除明文P的索引文件（已映射的视图在被回收前仍可使用）
+    public boolean delete(int plaintext16) throws IOException {
+        mapped.remove(plaintext16 & 0xFFFF);
+        return Files.deleteIfExists(pathFor(plaintext16));
+    }
+
+    // 本对象新构建的索引文件数
+    public long getBuildCount() {
+        return builds.get();
+    }
+
+    // 本对象从文件映射的次数（同一明文只映射一次）
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    // 先写入临时文件再原子改名，并发构建同一明文或中途失败都不会留下不完整的文件
+    private void write(SAESMitmIndex index) throws IOException {
+        Path target = pathFor(index.getPlaintext());
+        Path temp = Files.createTempFile(directory, "mitm-", ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SAESMitmIndex.SERIALIZED_BYTES);
+                index.writeTo(buffer);
+                buffer.force();
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            builds.incrementAndGet();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SAESMitmTableStore{目录=" + directory + "，已映射=" + mapped.size()
+                + "，构建=" + builds.get() + "，映射=" + loads.get() + "}";
+    }
+}
\ No newline at end of file
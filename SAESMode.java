@@ -0,0 +1,16 @@
+/**
+ * 文件与流处理支持的工作模式
+ */
+public enum SAESMode {
+    // 电子密码本：各分组独立，PKCS#7填充，加解密都可并行
+    ECB,
+    // 密文分组链接：PKCS#7填充，加密只能顺序执行，解密可并行
+    CBC,
+    // 计数器：不填充，密文与明文等长，加解密都可并行并支持随机访问
+    CTR;
+
+    // 是否使用PKCS#7填充（密文比明文多1~2字节）
+    public boolean isPadded() {
+        return this != CTR;
+    }
+}
\ No newline at end of file
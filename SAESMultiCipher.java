@@ -0,0 +1,109 @@
+/**
+ * 多重加密的可复用对象（双重加密、两密钥EDE三重加密、三密钥三重加密）
+ * 构造时对各子密钥各扩展一次密钥，对象不可变，可在多线程间共享；单分组与批量加解密都不分配对象。
+ */
+public final class SAESMultiCipher implements SAESBlockCipher {
+    public enum Mode {
+        // E(K2, E(K1, P))
+        DOUBLE,
+        // E(K2, D(K1, E(K2, P)))，与SAES.tripleEncrypt一致
+        TRIPLE_EDE,
+        // E(K3, E(K2, E(K1, P)))，48位密钥，与SAES.tripleEncryptMode2一致
+        TRIPLE_3KEY
+    }
+
+    private final Mode mode;
+    private final long key;
+    private final long roundKeys1;
+    private final long roundKeys2;
+    private final long roundKeys3;
+
+    private SAESMultiCipher(Mode mode, int key32) {
+        this.mode = mode;
+        this.key = key32 & 0xFFFFFFFFL;
+        this.roundKeys1 = SAESTables.expandKey((key32 >> 16) & 0xFFFF);
+        this.roundKeys2 = SAESTables.expandKey(key32 & 0xFFFF);
+        this.roundKeys3 = 0;
+    }
+
+    // 三密钥模式：K1为第47-32位，K2为第31-16位，K3为第15-0位
+    private SAESMultiCipher(long key48) {
+        this.mode = Mode.TRIPLE_3KEY;
+        this.key = key48 & 0xFFFFFFFFFFFFL;
+        this.roundKeys1 = SAESTables.expandKey((int) (key48 >>> 32) & 0xFFFF);
+        this.roundKeys2 = SAESTables.expandKey((int) (key48 >>> 16) & 0xFFFF);
+        this.roundKeys3 = SAESTables.expandKey((int) key48 & 0xFFFF);
+    }
+
+    // 双重加密对象：32位密钥（K1+K2）
+    public static SAESMultiCipher doubleCipher(int key32) {
+        return new SAESMultiCipher(Mode.DOUBLE, key32);
+    }
+
+    // 三重加密对象：32位密钥（K1+K2），EDE模式
+    public static SAESMultiCipher tripleCipher(int key32) {
+        return new SAESMultiCipher(Mode.TRIPLE_EDE, key32);
+    }
+
+    // 三重加密对象：48位密钥（K1+K2+K3），依次用K1、K2、K3加密
+    public static SAESMultiCipher tripleCipher3(long key48) {
+        return new SAESMultiCipher(key48);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    // 32位密钥（双重加密与EDE模式）；三密钥模式为48位密钥的低32位
+    public int getKey() {
+        return (int) key;
+    }
+
+    // 48位密钥（三密钥模式）；其他模式与getKey()的无符号值相同
+    public long getKey48() {
+        return key;
+    }
+
+
+    // 单分组加密
+    public int encryptBlock(int plaintext16) {
+        if (mode == Mode.DOUBLE) {
+            return SAESTables.encrypt(SAESTables.encrypt(plaintext16, roundKeys1), roundKeys2);
+        }
+        if (mode == Mode.TRIPLE_3KEY) {
+            int mid = SAESTables.encrypt(SAESTables.encrypt(plaintext16, roundKeys1), roundKeys2);
+            return SAESTables.encrypt(mid, roundKeys3);
+        }
+        int step1 = SAESTables.encrypt(plaintext16, roundKeys2);
+        int step2 = SAESTables.decrypt(step1, roundKeys1);
+        return SAESTables.encrypt(step2, roundKeys2);
+    }
+
+    // 单分组解密
+    public int decryptBlock(int ciphertext16) {
+        if (mode == Mode.DOUBLE) {
+            return SAESTables.decrypt(SAESTables.decrypt(ciphertext16, roundKeys2), roundKeys1);
+        }
+        if (mode == Mode.TRIPLE_3KEY) {
+            int mid = SAESTables.decrypt(SAESTables.decrypt(ciphertext16, roundKeys3), roundKeys2);
+            return SAESTables.decrypt(mid, roundKeys1);
+        }
+        int step1 = SAESTables.decrypt(ciphertext16, roundKeys2);
+        int step2 = SAESTables.encrypt(step1, roundKeys1);
+        return SAESTables.decrypt(step2, roundKeys2);
+    }
+
+    // 批量加密：in与out可为同一数组
+    public void encryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = encryptBlock(in[inOff + i]);
+        }
+    }
+
+    // 批量解密
+    public void decryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        for (int i = 0; i < len; i++) {
+            out[outOff + i] = decryptBlock(in[inOff + i]);
+        }
+    }
+}
\ No newline at end of file
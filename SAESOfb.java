@@ -0,0 +1,149 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * OFB（输出反馈）模式，带密钥流周期缓存
+ * 密钥流为S(i+1) = E(K, S(i))，S(0) = IV。E是16位分组上的置换，所以从IV出发的序列是纯周期的
+ * （回到IV时开始重复，没有前导部分），周期不超过65536个分组。
+ * 首次使用某个(密钥, IV)时走完整个周期并缓存为字节数组（最多128KB），之后任意长度的加解密
+ * 都只是与缓存做循环异或：内层是简单的字节数组异或循环，可被JIT自动向量化，也支持从任意偏移开始（随机访问）。
+ * 周期缓存放在按内存上限淘汰的SAESKeyCache中，以(K << 16 | IV)为键。加密与解密是同一运算。
+ */
+public final class SAESOfb {
+    // 默认缓存的内存上限
+    private static final long DEFAULT_CACHE_BYTES = 16L << 20;
+    private static final SAESKeyCache<Cycle> SHARED_CACHE = cycleCache(DEFAULT_CACHE_BYTES);
+    // 每个并行分块处理的字节数
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private final Cycle cycle;
+    private final ForkJoinPool pool;
+
+    // 使用共享的周期缓存（上限16MB）
+    public SAESOfb(int key16, int iv16) {
+        this(key16, iv16, SHARED_CACHE, ForkJoinPool.commonPool());
+    }
+
+    public SAESOfb(int key16, int iv16, SAESKeyCache<Cycle> cache, ForkJoinPool pool) {
+        this.cycle = cache.get(((key16 & 0xFFFF) << 16) | (iv16 & 0xFFFF));
+        this.pool = pool;
+    }
+
+    // 新建一个独立的周期缓存，maxBytes为内存上限
+    public static SAESKeyCache<Cycle> cycleCache(long maxBytes) {
+        return new SAESKeyCache<>(Cycle::detect, Cycle::getMemoryBytes, Integer.MAX_VALUE, maxBytes, -1);
+    }
+
+    // 共享缓存，可查看命中率等统计
+    public static SAESKeyCache<Cycle> sharedCache() {
+        return SHARED_CACHE;
+    }
+
+    public Cycle getCycle() {
+        return cycle;
+    }
+
+    // 从流的起点处理整个数组，返回新数组
+    public byte[] process(byte[] data) {
+        byte[] out = new byte[data.length];
+        process(data, 0, out, 0, data.length, 0);
+        return out;
+    }
+
+    /**
+     * 处理in[inOff..inOff+len)，这段数据位于流的第streamOffset个字节处（可为奇数），结果写入out
+     * in与out可为同一数组；较长的数据分块并行。
+     */
+    public void process(byte[] in, int inOff, byte[] out, int outOff, int len, long streamOffset) {
+        if (inOff < 0 || outOff < 0 || len < 0 || inOff > in.length - len || outOff > out.length - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界");
+        }
+        SAESParallel.forEachChunk(pool, 0, len, CHUNK_BYTES, (from, to) ->
+                xorRange(in, inOff + (int) from, out, outOff + (int) from, (int) (to - from), streamOffset + from));
+    }
+
+    // 分组形式：处理in[inOff..inOff+len)，位于流的第blockOffset个分组处
+    public void process(int[] in, int inOff, int[] out, int outOff, int len, long blockOffset) {
+        byte[] keystream = cycle.keystream;
+        int blocks = keystream.length / 2;
+        int pos = (int) (blockOffset % blocks);
+        for (int i = 0; i < len; i++) {
+            int ks = ((keystream[2 * pos] & 0xFF) << 8) | (keystream[2 * pos + 1] & 0xFF);
+            out[outOff + i] = (in[inOff + i] ^ ks) & 0xFFFF;
+            if (++pos == blocks) pos = 0;
+        }
+    }
+
+    // 与缓存的密钥流循环异或，每段是一个不跨越周期末尾的简单循环
+    private void xorRange(byte[] in, int inOff, byte[] out, int outOff, int len, long streamOffset) {
+        byte[] keystream = cycle.keystream;
+        int pos = (int) (streamOffset % keystream.length);
+        int done = 0;
+        while (done < len) {
+            int n = Math.min(len - done, keystream.length - pos);
+            int inBase = inOff + done;
+            int outBase = outOff + done;
+            for (int i = 0; i < n; i++) {
+                out[outBase + i] = (byte) (in[inBase + i] ^ keystream[pos + i]);
+            }
+            done += n;
+            pos = 0;
+        }
+    }
+
+    /**
+     * 一个(密钥, IV)的OFB密钥流周期
+     * keystream为一个完整周期的密钥流字节（每分组2字节，高字节在前），长度为2×周期长度。
+     */
+    public static final class Cycle {
+        private final int key16;
+        private final int iv16;
+        private final byte[] keystream;
+
+        private Cycle(int key16, int iv16, byte[] keystream) {
+            this.key16 = key16;
+            this.iv16 = iv16;
+            this.keystream = keystream;
+        }
+
+        // 从IV出发反复加密直到回到IV，keyAndIv = K << 16 | IV
+        static Cycle detect(int keyAndIv) {
+            int key16 = (keyAndIv >>> 16) & 0xFFFF;
+            int iv16 = keyAndIv & 0xFFFF;
+            long roundKeys = SAESTables.expandKey(key16);
+            byte[] buffer = new byte[2 * SAESMitmIndex.KEY_COUNT];
+            int length = 0;
+            int state = iv16;
+            do {
+                state = SAESTables.encrypt(state, roundKeys);
+                buffer[2 * length] = (byte) (state >>> 8);
+                buffer[2 * length + 1] = (byte) state;
+                length++;
+            } while (state != iv16);
+            byte[] keystream = length == SAESMitmIndex.KEY_COUNT ? buffer : Arrays.copyOf(buffer, 2 * length);
+            return new Cycle(key16, iv16, keystream);
+        }
+
+        public int getKey() {
+            return key16;
+        }
+
+        public int getIv() {
+            return iv16;
+        }
+
+        // 周期长度（分组数）
+        public int getLength() {
+            return keystream.length / 2;
+        }
+
+        public long getMemoryBytes() {
+            return keystream.length + 32L;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("OFB周期{K=%04X，IV=%04X，长度=%d个分组}", key16, iv16, getLength());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 边写边加密（或解密）的输出流，支持ECB、CBC、CTR
+ * 写入的数据先进入一个固定大小的内部缓冲区，攒满后就地处理并写到下层流，内存占用与数据总量无关。
+ * ECB与CBC加密时不完整的分组、解密时最后一个分组会留在缓冲区，close时再补填充或去填充，
+ * 因此必须调用close（flush只输出已能确定的部分）。CTR的flush会输出全部已写入的数据。
+ * 非线程安全。
+ */
+public class SAESOutputStream extends FilterOutputStream {
+    // 默认内部缓冲区大小（偶数）
+    public static final int DEFAULT_BUFFER_BYTES = 8 * 1024;
+
+    private final SAESStreamCipher state;
+    private final byte[] buffer;
+    private final int bufferLimit;
+    private int count;
+    private boolean closed;
+
+    // 加密输出流（默认缓冲区）
+    public SAESOutputStream(OutputStream out, SAESMode mode, SAESBlockCipher cipher, int iv16) {
+        this(out, mode, cipher, iv16, true, DEFAULT_BUFFER_BYTES);
+    }
+
+    // encrypt为false时解密写入的密文；bufferBytes须为不小于4的偶数
+    public SAESOutputStream(OutputStream out, SAESMode mode, SAESBlockCipher cipher, int iv16, boolean encrypt,
+                            int bufferBytes) {
+        super(out);
+        if (bufferBytes < 4 || (bufferBytes & 1) != 0) {
+            throw new IllegalArgumentException("缓冲区大小必须为不小于4的偶数：" + bufferBytes);
+        }
+        this.state = new SAESStreamCipher(mode, cipher, iv16, encrypt);
+        // 多出的2字节留给加密时的填充
+        this.buffer = new byte[bufferBytes + SAESPadding.BLOCK_BYTES];
+        this.bufferLimit = bufferBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == bufferLimit) drain();
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (off < 0 || len < 0 || off > b.length - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + off + "，len=" + len);
+        }
+        while (len > 0) {
+            if (count == bufferLimit) drain();
+            int n = Math.min(len, bufferLimit - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    // 输出已能确定的部分并刷新下层流
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        out.flush();
+    }
+
+    // 处理剩余数据（补填充或去填充）后关闭下层流；重复调用无效果
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            drain();
+            int n = state.doFinal(buffer, 0, count);
+            out.write(buffer, 0, n);
+            count = 0;
+            out.flush();
+        } finally {
+            out.close();
+        }
+    }
+
+    // 处理并写出缓冲区中现在就能处理的部分，剩余字节移到缓冲区开头
+    private void drain() throws IOException {
+        int n = state.processable(count);
+        if (n == 0) return;
+        state.update(buffer, 0, n);
+        out.write(buffer, 0, n);
+        System.arraycopy(buffer, n, buffer, 0, count - n);
+        count -= n;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("流已关闭");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+/**
+ * S-AES 打包状态引擎
+ * 整个轮流程中状态始终保存在一个int的低16位（与dataToState的按列排列一致：
+ * s00→bit15~12，s10→bit11~8，s01→bit7~4，s11→bit3~0），热路径上不分配任何对象，
+ * 结果与SAES.encrypt16/decrypt16逐位一致。
+ */
+public final class SAESPacked {
+    // GF(2⁴)乘4/乘2/乘9查表，由SAES.gfMult在类加载时生成
+    private static final int[] MUL4 = new int[16];
+    private static final int[] MUL2 = new int[16];
+    private static final int[] MUL9 = new int[16];
+
+    static {
+        for (int i = 0; i < 16; i++) {
+            MUL4[i] = SAES.gfMult(4, i);
+            MUL2[i] = SAES.gfMult(2, i);
+            MUL9[i] = SAES.gfMult(9, i);
+        }
+    }
+
+    private SAESPacked() {
+    }
+
+
+    // 16位密钥扩展，三个轮密钥打包为long：K0→bit47~32，K1→bit31~16，K2→bit15~0（bit63~48留给SAESTables）
+    public static long expandKey(int key16) {
+        int w0 = (key16 >> 8) & 0xFF;
+        int w1 = key16 & 0xFF;
+
+        int w2 = w0 ^ gFunc(w1, SAES.RCON1);
+        int w3 = w2 ^ w1;
+        int w4 = w2 ^ gFunc(w3, SAES.RCON2);
+        int w5 = w4 ^ w3;
+
+        return ((long) ((w0 << 8) | w1) << 32) | ((long) ((w2 << 8) | w3) << 16) | ((w4 << 8) | w5);
+    }
+
+    // 取出第round个轮密钥（0~2）
+    public static int roundKey(long roundKeys, int round) {
+        return (int) (roundKeys >>> (32 - 16 * round)) & 0xFFFF;
+    }
+
+    // 密钥扩展辅助函数：RotNib + SubNib + RCON
+    private static int gFunc(int w, int rcon) {
+        return ((SAES.S_BOX[w & 0x0F] << 4) | SAES.S_BOX[(w >> 4) & 0x0F]) ^ rcon;
+    }
+
+
+    // 半字节代替
+    static int subNibbles(int s) {
+        int[] sBox = SAES.S_BOX;
+        return (sBox[(s >> 12) & 0xF] << 12) | (sBox[(s >> 8) & 0xF] << 8)
+                | (sBox[(s >> 4) & 0xF] << 4) | sBox[s & 0xF];
+    }
+
+    // 逆半字节代替
+    static int invSubNibbles(int s) {
+        int[] invSBox = SAES.INV_S_BOX;
+        return (invSBox[(s >> 12) & 0xF] << 12) | (invSBox[(s >> 8) & 0xF] << 8)
+                | (invSBox[(s >> 4) & 0xF] << 4) | invSBox[s & 0xF];
+    }
+
+    // 行移位：交换第二行的两个半字节（s10↔s11），其逆运算与自身相同
+    static int shiftRows(int s) {
+        return (s & 0xF0F0) | ((s >> 8) & 0x000F) | ((s & 0x000F) << 8);
+    }
+
+    // 列混淆：每列[[1,4],[4,1]]
+    static int mixColumns(int s) {
+        int s00 = (s >> 12) & 0xF, s10 = (s >> 8) & 0xF;
+        int s01 = (s >> 4) & 0xF, s11 = s & 0xF;
+        return ((s00 ^ MUL4[s10]) << 12) | ((MUL4[s00] ^ s10) << 8)
+                | ((s01 ^ MUL4[s11]) << 4) | (MUL4[s01] ^ s11);
+    }
+
+    // 逆列混淆：每列[[9,2],[2,9]]
+    static int invMixColumns(int s) {
+        int s00 = (s >> 12) & 0xF, s10 = (s >> 8) & 0xF;
+        int s01 = (s >> 4) & 0xF, s11 = s & 0xF;
+        return ((MUL9[s00] ^ MUL2[s10]) << 12) | ((MUL2[s00] ^ MUL9[s10]) << 8)
+                | ((MUL9[s01] ^ MUL2[s11]) << 4) | (MUL2[s01] ^ MUL9[s11]);
+    }
+
+
+    // 使用已扩展的轮密钥加密一个16位分组
+    public static int encrypt(int plaintext16, long roundKeys) {
+        int s = (plaintext16 & 0xFFFF) ^ roundKey(roundKeys, 0);
+        s = mixColumns(shiftRows(subNibbles(s))) ^ roundKey(roundKeys, 1);
+        return shiftRows(subNibbles(s)) ^ roundKey(roundKeys, 2);
+    }
+
+    // 使用已扩展的轮密钥解密一个16位分组
+    public static int decrypt(int ciphertext16, long roundKeys) {
+        int s = (ciphertext16 & 0xFFFF) ^ roundKey(roundKeys, 2);
+        s = invMixColumns(invSubNibbles(shiftRows(s)) ^ roundKey(roundKeys, 1));
+        return invSubNibbles(shiftRows(s)) ^ roundKey(roundKeys, 0);
+    }
+
+    // 基础加密：与SAES.encrypt16结果一致
+    public static int encrypt16(int plaintext16, int key16) {
+        return encrypt(plaintext16, expandKey(key16));
+    }
+
+    // 基础解密：与SAES.decrypt16结果一致
+    public static int decrypt16(int ciphertext16, int key16) {
+        return decrypt(ciphertext16, expandKey(key16));
+    }
+}
\ No newline at end of file
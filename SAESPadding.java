@@ -0,0 +1,83 @@
+import java.nio.ByteBuffer;
+
+/**
+ * PKCS#7填充（分组长度2字节）
+ * 数据末尾总是追加n个值为n的字节（n = 1或2），使长度为2的整数倍；原数据为偶数长度时追加一整个分组02 02。
+ * 因此任意字节（包括0x00）都能原样还原，去填充时只看最后一个分组。
+ * 直接在调用方的byte[]或ByteBuffer上读写（ByteBuffer使用绝对下标），不分配对象。
+ */
+public final class SAESPadding {
+    // 分组字节数
+    public static final int BLOCK_BYTES = 2;
+
+    private SAESPadding() {
+    }
+
+    // len字节数据填充后的长度
+    public static int paddedLength(int len) {
+        if (len < 0) throw new IllegalArgumentException("长度不能为负：" + len);
+        return len + BLOCK_BYTES - (len % BLOCK_BYTES);
+    }
+
+    // 在data[off+len..]写入填充字节（调用方须预留空间），返回填充后的长度
+    public static int pad(byte[] data, int off, int len) {
+        int padded = paddedLength(len);
+        checkRange(data.length, off, padded);
+        byte value = (byte) (padded - len);
+        for (int i = off + len; i < off + padded; i++) data[i] = value;
+        return padded;
+    }
+
+    // 同pad(byte[], int, int)，buffer使用绝对下标
+    public static int pad(ByteBuffer buffer, int off, int len) {
+        int padded = paddedLength(len);
+        checkRange(buffer.limit(), off, padded);
+        byte value = (byte) (padded - len);
+        for (int i = off + len; i < off + padded; i++) buffer.put(i, value);
+        return padded;
+    }
+
+    // data[off..off+len)去除填充后的长度，填充无效时返回-1（可用于快速排除错误密钥）
+    public static int unpaddedLength(byte[] data, int off, int len) {
+        checkRange(data.length, off, len);
+        if (len < BLOCK_BYTES || len % BLOCK_BYTES != 0) return -1;
+        int value = data[off + len - 1] & 0xFF;
+        if (value == 0 || value > BLOCK_BYTES) return -1;
+        for (int i = len - value; i < len - 1; i++) {
+            if ((data[off + i] & 0xFF) != value) return -1;
+        }
+        return len - value;
+    }
+
+    // 同unpaddedLength(byte[], int, int)，buffer使用绝对下标
+    public static int unpaddedLength(ByteBuffer buffer, int off, int len) {
+        checkRange(buffer.limit(), off, len);
+        if (len < BLOCK_BYTES || len % BLOCK_BYTES != 0) return -1;
+        int value = buffer.get(off + len - 1) & 0xFF;
+        if (value == 0 || value > BLOCK_BYTES) return -1;
+        for (int i = len - value; i < len - 1; i++) {
+            if ((buffer.get(off + i) & 0xFF) != value) return -1;
+        }
+        return len - value;
+    }
+
+    // 去除填充后的长度，填充无效时抛出IllegalArgumentException
+    public static int unpad(byte[] data, int off, int len) {
+        return checkUnpadded(unpaddedLength(data, off, len));
+    }
+
+    public static int unpad(ByteBuffer buffer, int off, int len) {
+        return checkUnpadded(unpaddedLength(buffer, off, len));
+    }
+
+    private static int checkUnpadded(int len) {
+        if (len < 0) throw new IllegalArgumentException("PKCS#7填充无效（密钥错误或密文被篡改）");
+        return len;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int len) {
+        if (offset < 0 || len < 0 || offset > arrayLength - len) {
+            throw new IndexOutOfBoundsException("偏移或长度越界：offset=" + offset + "，len=" + len);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,53 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/Join分块并行的公共工具
+ * 把区间[start, end)二分拆成不超过chunkSize的小块，在指定的ForkJoinPool中并行执行。
+ */
+final class SAESParallel {
+    // 处理区间[from, to)的一个分块
+    @FunctionalInterface
+    interface ChunkTask {
+        void run(long from, long to);
+    }
+
+    private SAESParallel() {
+    }
+
+    // 并行处理[start, end)，所有分块完成后返回；任一分块抛出的异常会在调用线程重新抛出
+    static void forEachChunk(ForkJoinPool pool, long start, long end, long chunkSize, ChunkTask task) {
+        if (end <= start) return;
+        if (end - start <= chunkSize) {
+            task.run(start, end);
+            return;
+        }
+        pool.invoke(new ChunkAction(start, end, Math.max(1, chunkSize), task));
+    }
+
+    private static final class ChunkAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long from, to, chunkSize;
+        private final transient ChunkTask task;
+
+        ChunkAction(long from, long to, long chunkSize, ChunkTask task) {
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                task.run(from, to);
+                return;
+            }
+            // 按chunkSize对齐切分，保证各分块边界与顺序处理时一致
+            long mid = from + ((to - from) / chunkSize / 2) * chunkSize;
+            if (mid == from) mid = from + chunkSize;
+            invokeAll(new ChunkAction(from, mid, chunkSize, task), new ChunkAction(mid, to, chunkSize, task));
+        }
+    }
+}
\ No newline at end of file
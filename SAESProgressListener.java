@@ -0,0 +1,15 @@
+/**
+ * 长时间攻击任务的进度回调
+ * 可能在工作线程中被并发调用，实现需自行保证线程安全（如GUI中转到事件线程再更新界面）。
+ */
+@FunctionalInterface
+public interface SAESProgressListener {
+    /**
+     * @param phase          当前阶段描述
+     * @param processed      已处理的密钥数
+     * @param total          需处理的密钥总数
+     * @param candidatesFound 目前找到的候选密钥数
+     * @param etaMillis      预计剩余时间（毫秒），无法估计时为-1
+     */
+    void onProgress(String phase, long processed, long total, long candidatesFound, long etaMillis);
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 并行任务的进度汇总：累计已处理密钥数和候选数，估算剩余时间并通知SAESProgressListener，
+ * 同时负责检查取消标记。listener和token均可为null。
+ */
+final class SAESProgressTracker {
+    private final SAESProgressListener listener;
+    private final SAESCancellationToken token;
+    private final long total;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong candidates = new AtomicLong();
+    private volatile String phase = "";
+
+    SAESProgressTracker(SAESProgressListener listener, SAESCancellationToken token, long total) {
+        this.listener = listener;
+        this.token = token;
+        this.total = total;
+    }
+
+    void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    // 已取消时抛出CancellationException
+    void checkCancelled() {
+        if (token != null) {
+            token.throwIfCancelled();
+        }
+    }
+
+    // 一个分块完成：累加计数并通知监听器
+    void advance(long keys, long newCandidates) {
+        long done = processed.addAndGet(keys);
+        long found = newCandidates == 0 ? candidates.get() : candidates.addAndGet(newCandidates);
+        if (listener != null) {
+            long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            long etaMillis = done == 0 ? -1 : elapsedMillis * (total - done) / done;
+            listener.onProgress(phase, done, total, found, etaMillis);
+        }
+    }
+
+    long getCandidates() {
+        return candidates.get();
+    }
+
+    long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 彩虹表密钥恢复引擎：由若干张独立的SAESRainbowTable组成
+ * 覆盖率约为 1 - (1 - 链长×链数/密钥空间)^表数（未计链合并），链长越大存储越少但查找越慢（约链长²/2次f计算）。
+ * 典型参数：16位空间链长256、每表512条链、4张表约2KB即可覆盖大部分密钥；
+ * 32位双重加密空间需要链长数千、每表百万级链才能达到可观的成功率。
+ */
+public final class SAESRainbow {
+    private final SAESRainbowTable.KeySpace space;
+    private final SAESRainbowTable[] tables;
+
+    private SAESRainbow(SAESRainbowTable.KeySpace space, SAESRainbowTable[] tables) {
+        this.space = space;
+        this.tables = tables;
+    }
+
+    /**
+     * 生成tableCount张表（依次生成，每张表内部并行）
+     * listener不为null时每完成一张表报告一次进度；token被取消时抛出CancellationException。
+     */
+    public static SAESRainbow build(SAESRainbowTable.KeySpace space, int chainLength, int chainsPerTable,
+                                    int tableCount, ForkJoinPool pool, SAESProgressListener listener,
+                                    SAESCancellationToken token) {
+        if (tableCount <= 0) throw new IllegalArgumentException("表数必须大于0");
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, tableCount);
+        tracker.setPhase("生成彩虹表");
+        SAESRainbowTable[] tables = new SAESRainbowTable[tableCount];
+        for (int t = 0; t < tableCount; t++) {
+            tracker.checkCancelled();
+            tables[t] = SAESRainbowTable.build(space, t, chainLength, chainsPerTable, pool);
+            tracker.advance(1, 0);
+        }
+        return new SAESRainbow(space, tables);
+    }
+
+    // 每张表保存为目录下的rainbow-N.tbl
+    public void save(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (SAESRainbowTable table : tables) {
+            table.save(directory.resolve("rainbow-" + table.getTableIndex() + ".tbl"));
+        }
+    }
+
+    // 读取目录下全部rainbow-N.tbl
+    public static SAESRainbow load(Path directory, SAESRainbowTable.KeySpace space) throws IOException {
+        Path[] files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(p -> p.getFileName().toString().matches("rainbow-\\d+\\.tbl"))
+                    .sorted().toArray(Path[]::new);
+        }
+        if (files.length == 0) throw new IOException("目录中没有彩虹表：" + directory);
+        SAESRainbowTable[] tables = new SAESRainbowTable[files.length];
+        for (int i = 0; i < files.length; i++) {
+            tables[i] = SAESRainbowTable.load(files[i], space);
+        }
+        return new SAESRainbow(space, tables);
+    }
+
+    // 查找像为image的密钥（依次查各表），找不到返回-1
+    public long findKey(long image) {
+        return findKey(image, null);
+    }
+
+    // 同findKey(long)，stats[0]累加f计算次数，stats[1]累加假警报次数
+    public long findKey(long image, long[] stats) {
+        for (SAESRainbowTable table : tables) {
+            long key = table.lookup(image, stats);
+            if (key >= 0) return key;
+        }
+        return -1;
+    }
+
+    /**
+     * 用samples个随机密钥实测成功率与查找延迟（各样本在pool中并行查找）
+     * 查到的密钥与原密钥不同但像相同时也算成功（同样满足选择明文）。
+     */
+    public Report measure(int samples, long seed, ForkJoinPool pool) {
+        long[] keys = new long[samples];
+        Random random = new Random(seed);
+        for (int i = 0; i < samples; i++) {
+            keys[i] = random.nextLong() & space.getKeyMask();
+        }
+        long[] latencies = new long[samples];
+        AtomicLong successes = new AtomicLong();
+        AtomicLong evaluations = new AtomicLong();
+        AtomicLong falseAlarms = new AtomicLong();
+        long start = System.nanoTime();
+        SAESParallel.forEachChunk(pool, 0, samples, 1, (from, to) -> {
+            long[] stats = new long[2];
+            for (int i = (int) from; i < to; i++) {
+                long image = space.image(keys[i]);
+                long begin = System.nanoTime();
+                long found = findKey(image, stats);
+                latencies[i] = System.nanoTime() - begin;
+                if (found >= 0) successes.incrementAndGet();
+            }
+            evaluations.addAndGet(stats[0]);
+            falseAlarms.addAndGet(stats[1]);
+        });
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencies);
+        return new Report(this, samples, successes.get(), latencies, evaluations.get(), falseAlarms.get(), elapsed);
+    }
+
+    public SAESRainbowTable.KeySpace getKeySpace() {
+        return space;
+    }
+
+    public int getTableCount() {
+        return tables.length;
+    }
+
+    public SAESRainbowTable getTable(int index) {
+        return tables[index];
+    }
+
+    // 全部表的磁盘字节数
+    public long getStorageBytes() {
+        long bytes = 0;
+        for (SAESRainbowTable table : tables) bytes += table.getStorageBytes();
+        return bytes;
+    }
+
+    // 全部表覆盖的链节点数（链长×链数之和），含链合并造成的重复
+    public long getCoveredPoints() {
+        long points = 0;
+        for (SAESRainbowTable table : tables) points += (long) table.getChainLength() * table.getChainCount();
+        return points;
+    }
+
+    // 实测结果
+    public static final class Report {
+        private final String description;
+        private final int samples;
+        private final long successes;
+        private final long[] sortedLatencies;
+        private final long evaluations;
+        private final long falseAlarms;
+        private final long elapsedNanos;
+
+        Report(SAESRainbow rainbow, int samples, long successes, long[] sortedLatencies, long evaluations,
+               long falseAlarms, long elapsedNanos) {
+            this.description = String.format("%s，%d张表，存储%dKB，覆盖节点%d",
+                    rainbow.space, rainbow.tables.length, rainbow.getStorageBytes() / 1024,
+                    rainbow.getCoveredPoints());
+            this.samples = samples;
+            this.successes = successes;
+            this.sortedLatencies = sortedLatencies;
+            this.evaluations = evaluations;
+            this.falseAlarms = falseAlarms;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double getSuccessRate() {
+            return samples == 0 ? 0 : (double) successes / samples;
+        }
+
+        public double getMeanLatencyMillis() {
+            long sum = 0;
+            for (long latency : sortedLatencies) sum += latency;
+            return samples == 0 ? 0 : sum / 1e6 / samples;
+        }
+
+        // 延迟分位数（0~1），单位毫秒
+        public double getLatencyPercentileMillis(double quantile) {
+            if (samples == 0) return 0;
+            int index = (int) Math.min(samples - 1, Math.round(quantile * (samples - 1)));
+            return sortedLatencies[index] / 1e6;
+        }
+
+        public long getFalseAlarms() {
+            return falseAlarms;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("彩虹表实测（%s）%n"
+                            + "  样本%d个，成功%d个，成功率%.1f%%%n"
+                            + "  查找延迟：平均%.3fms，中位数%.3fms，P99 %.3fms%n"
+                            + "  平均每次查找计算f %.0f次，假警报%.1f次；总耗时%.1fms",
+                    description, samples, successes, getSuccessRate() * 100,
+                    getMeanLatencyMillis(), getLatencyPercentileMillis(0.5), getLatencyPercentileMillis(0.99),
+                    samples == 0 ? 0.0 : (double) evaluations / samples,
+                    samples == 0 ? 0.0 : (double) falseAlarms / samples, elapsedNanos / 1e6);
+        }
+    }
+}
\ No newline at end of file
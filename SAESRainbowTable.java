@@ -0,0 +1,300 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 选择明文下的彩虹表（Hellman时间-存储折中）：单张表
+ * 固定选择明文后，“密钥 → 密文”是一个从密钥空间到同宽度像空间的函数f（见KeySpace），
+ * 链从起点x0出发按x(i+1) = R(i, f(x(i)))迭代chainLength步，只保存(起点, 终点)。
+ * 每列的约简函数R(i, ·)不同（彩虹表），并与表序号相关，多张表互相独立。
+ * 终点相同的链只保留一条（完美表），链按终点排序以便二分查找。
+ * 磁盘格式紧凑：每个值按密钥宽度存2或4字节（16位密钥每条链4字节，32位密钥8字节）。
+ */
+public final class SAESRainbowTable {
+    private static final int MAGIC = 0x52424F57; // "RBOW"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    // 每个并行分块计算的链数
+    private static final int CHUNK_CHAINS = 256;
+
+    /**
+     * 被攻击的密钥空间及其单向函数f
+     * 16位：f(K) = E(K, P)；32位（双重加密）：f(K1K2) = E2(K, P0) << 16 | E2(K, P1)，
+     * 双重加密只有16位输出，用两个选择明文把像扩展到与密钥同宽，避免约简时丢失信息。
+     */
+    public static final class KeySpace {
+        private final int keyBits;
+        private final int plaintext0;
+        private final int plaintext1;
+
+        private KeySpace(int keyBits, int plaintext0, int plaintext1) {
+            this.keyBits = keyBits;
+            this.plaintext0 = plaintext0 & 0xFFFF;
+            this.plaintext1 = plaintext1 & 0xFFFF;
+        }
+
+        // 单密钥S-AES，选择明文P
+        public static KeySpace singleKey(int plaintext16) {
+            return new KeySpace(16, plaintext16, 0);
+        }
+
+        // 双重加密（SAES.doubleEncrypt），两个不同的选择明文P0、P1
+        public static KeySpace doubleKey(int plaintext0, int plaintext1) {
+            if ((plaintext0 & 0xFFFF) == (plaintext1 & 0xFFFF)) {
+                throw new IllegalArgumentException("两个选择明文必须不同");
+            }
+            return new KeySpace(32, plaintext0, plaintext1);
+        }
+
+        public int getKeyBits() {
+            return keyBits;
+        }
+
+        public long getKeyMask() {
+            return keyBits == 16 ? 0xFFFFL : 0xFFFFFFFFL;
+        }
+
+        // 密钥在选择明文下的像（即攻击时从加密方获得的密文）
+        public long image(long key) {
+            long[] roundKeys = SAESMitm.allRoundKeys();
+            if (keyBits == 16) {
+                return SAESTables.encrypt(plaintext0, roundKeys[(int) key & 0xFFFF]);
+            }
+            long roundKeys1 = roundKeys[(int) (key >>> 16) & 0xFFFF];
+            long roundKeys2 = roundKeys[(int) key & 0xFFFF];
+            long c0 = SAESTables.encrypt(SAESTables.encrypt(plaintext0, roundKeys1), roundKeys2);
+            long c1 = SAESTables.encrypt(SAESTables.encrypt(plaintext1, roundKeys1), roundKeys2);
+            return (c0 << 16) | c1;
+        }
+
+        // 由加密方返回的密文组成像：16位只用c0，32位为c0 << 16 | c1
+        public long image(int ciphertext0, int ciphertext1) {
+            return keyBits == 16 ? ciphertext0 & 0xFFFF : ((long) (ciphertext0 & 0xFFFF) << 16) | (ciphertext1 & 0xFFFF);
+        }
+
+        public int getPlaintext0() {
+            return plaintext0;
+        }
+
+        public int getPlaintext1() {
+            return plaintext1;
+        }
+
+        @Override
+        public String toString() {
+            return keyBits == 16
+                    ? String.format("16位密钥空间（P=%04X）", plaintext0)
+                    : String.format("32位双重加密密钥空间（P0=%04X，P1=%04X）", plaintext0, plaintext1);
+        }
+    }
+
+    private final KeySpace space;
+    private final int tableIndex;
+    private final int chainLength;
+    // 按终点无符号升序；starts[i]与ends[i]对应同一条链
+    private final int[] starts;
+    private final int[] ends;
+
+    private SAESRainbowTable(KeySpace space, int tableIndex, int chainLength, int[] starts, int[] ends) {
+        this.space = space;
+        this.tableIndex = tableIndex;
+        this.chainLength = chainLength;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * 并行生成一张表：chainCount条链（起点由序号经双射打散，互不相同），每条chainLength步
+     * 去掉终点重复的链后，实际链数可能少于chainCount。
+     */
+    public static SAESRainbowTable build(KeySpace space, int tableIndex, int chainLength, int chainCount,
+                                         ForkJoinPool pool) {
+        if (chainLength <= 0 || chainCount <= 0) throw new IllegalArgumentException("链长和链数必须大于0");
+        if (chainCount > space.getKeyMask() + 1) throw new IllegalArgumentException("链数超过密钥空间大小");
+        long[] chains = new long[chainCount];
+        SAESParallel.forEachChunk(pool, 0, chainCount, CHUNK_CHAINS, (from, to) -> {
+            for (int i = (int) from; i < to; i++) {
+                long start = startPoint(space, tableIndex, i);
+                long end = walk(space, tableIndex, start, 0, chainLength);
+                // 终点在高32位、起点在低32位，翻转符号位后按有符号排序即按终点无符号排序
+                chains[i] = ((end << 32) | start) ^ Long.MIN_VALUE;
+            }
+        });
+        Arrays.sort(chains);
+        int count = 0;
+        int[] starts = new int[chainCount];
+        int[] ends = new int[chainCount];
+        for (long chain : chains) {
+            chain ^= Long.MIN_VALUE;
+            int end = (int) (chain >>> 32);
+            if (count > 0 && ends[count - 1] == end) continue;
+            ends[count] = end;
+            starts[count++] = (int) chain;
+        }
+        return new SAESRainbowTable(space, tableIndex, chainLength,
+                Arrays.copyOf(starts, count), Arrays.copyOf(ends, count));
+    }
+
+    /**
+     * 查找像为image的密钥，找到时返回密钥，否则返回-1
+     * 从最后一列往前逐列假设位置，每次命中终点都要从起点重走验证（排除假警报）。
+     * stats不为null时累加f的计算次数和假警报次数：stats[0] += f次数，stats[1] += 假警报数。
+     */
+    public long lookup(long image, long[] stats) {
+        long mask = space.getKeyMask();
+        long evaluations = 0;
+        long falseAlarms = 0;
+        long found = -1;
+        for (int column = chainLength - 1; column >= 0 && found < 0; column--) {
+            long x = reduce(image, column, tableIndex, mask);
+            for (int i = column + 1; i < chainLength; i++) {
+                x = reduce(space.image(x), i, tableIndex, mask);
+            }
+            evaluations += chainLength - 1 - column;
+            int pos = findEnd((int) x);
+            if (pos < 0) continue;
+            long key = starts[pos] & mask;
+            for (int i = 0; i < column; i++) {
+                key = reduce(space.image(key), i, tableIndex, mask);
+            }
+            evaluations += column + 1;
+            if (space.image(key) == image) {
+                found = key;
+            } else {
+                falseAlarms++;
+            }
+        }
+        if (stats != null) {
+            stats[0] += evaluations;
+            stats[1] += falseAlarms;
+        }
+        return found;
+    }
+
+    // 写入文件：32字节头 + 终点数组 + 起点数组，值宽按密钥位数为2或4字节，小端序
+    public void save(Path path) throws IOException {
+        int valueBytes = space.getKeyBits() / 8;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + 2 * valueBytes * ends.length).order(ByteOrder.LITTLE_ENDIAN);
+        buf.putInt(MAGIC).putInt(VERSION).putInt(space.getKeyBits()).putInt(tableIndex)
+                .putInt(chainLength).putInt(ends.length).putShort((short) space.getPlaintext0())
+                .putShort((short) space.getPlaintext1()).putInt(0);
+        putValues(buf, ends, valueBytes);
+        putValues(buf, starts, valueBytes);
+        buf.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) channel.write(buf);
+        }
+    }
+
+    // 读取save写出的表，space须与生成时一致
+    public static SAESRainbowTable load(Path path, KeySpace space) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buf.remaining() < HEADER_BYTES || buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+            throw new IOException("不是有效的彩虹表文件：" + path);
+        }
+        int keyBits = buf.getInt();
+        int tableIndex = buf.getInt();
+        int chainLength = buf.getInt();
+        int count = buf.getInt();
+        int plaintext0 = buf.getShort() & 0xFFFF;
+        int plaintext1 = buf.getShort() & 0xFFFF;
+        buf.getInt();
+        if (keyBits != space.getKeyBits() || plaintext0 != space.getPlaintext0()
+                || (keyBits == 32 && plaintext1 != space.getPlaintext1())) {
+            throw new IOException("彩虹表与密钥空间不符：" + path);
+        }
+        int valueBytes = keyBits / 8;
+        if (buf.remaining() != 2L * valueBytes * count) {
+            throw new IOException("彩虹表文件长度错误：" + path);
+        }
+        int[] ends = getValues(buf, count, valueBytes);
+        int[] starts = getValues(buf, count, valueBytes);
+        return new SAESRainbowTable(space, tableIndex, chainLength, starts, ends);
+    }
+
+    public KeySpace getKeySpace() {
+        return space;
+    }
+
+    public int getTableIndex() {
+        return tableIndex;
+    }
+
+    public int getChainLength() {
+        return chainLength;
+    }
+
+    // 去重后的链数
+    public int getChainCount() {
+        return ends.length;
+    }
+
+    // 磁盘上的字节数
+    public long getStorageBytes() {
+        return HEADER_BYTES + 2L * (space.getKeyBits() / 8) * ends.length;
+    }
+
+    // 第i条链的起点：序号乘奇数再加表序号相关的偏移，在2^n上是双射，保证起点互不相同
+    private static long startPoint(KeySpace space, int tableIndex, long i) {
+        return (i * 0x9E3779B1L + tableIndex * 0x7F4A7C15L) & space.getKeyMask();
+    }
+
+    // 从第from列的密钥走到第to列
+    private static long walk(KeySpace space, int tableIndex, long key, int from, int to) {
+        long mask = space.getKeyMask();
+        for (int i = from; i < to; i++) {
+            key = reduce(space.image(key), i, tableIndex, mask);
+        }
+        return key;
+    }
+
+    // 约简函数R(列, 像)：与列号和表序号相关的异或后做一次整数混合，映射回密钥空间
+    private static long reduce(long image, int column, int tableIndex, long mask) {
+        long x = image ^ (column * 0x9E3779B97F4A7C15L) ^ ((long) tableIndex << 40);
+        x = (x ^ (x >>> 29)) * 0xBF58476D1CE4E5B9L;
+        return (x ^ (x >>> 32)) & mask;
+    }
+
+    // 按终点（无符号）二分查找
+    private int findEnd(int end) {
+        int lo = 0;
+        int hi = ends.length - 1;
+        int target = end ^ Integer.MIN_VALUE;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int value = ends[mid] ^ Integer.MIN_VALUE;
+            if (value < target) lo = mid + 1;
+            else if (value > target) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static void putValues(ByteBuffer buf, int[] values, int valueBytes) {
+        for (int value : values) {
+            if (valueBytes == 2) buf.putShort((short) value);
+            else buf.putInt(value);
+        }
+    }
+
+    private static int[] getValues(ByteBuffer buf, int count, int valueBytes) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = valueBytes == 2 ? buf.getShort() & 0xFFFF : buf.getInt();
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SAESRainbowTable{%s，表%d，链长%d，链数%d，%dKB}",
+                space, tableIndex, chainLength, ends.length, getStorageBytes() / 1024);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 流式加解密的增量状态（供SAESOutputStream、SAESInputStream使用）
+ * 记录CBC的链接值和CTR的流偏移，使数据可以分多段依次处理，结果与一次性处理整段数据相同。
+ * ECB与CBC使用PKCS#7填充：加密时不完整的分组要留到最后补齐，解密时最后一个分组要留到最后去填充。
+ */
+final class SAESStreamCipher {
+    private final SAESMode mode;
+    private final SAESBlockCipher cipher;
+    private final boolean encrypt;
+    private final SAESCtr ctr;
+    private int chain;
+    private long streamOffset;
+
+    SAESStreamCipher(SAESMode mode, SAESBlockCipher cipher, int iv16, boolean encrypt) {
+        this.mode = mode;
+        this.cipher = cipher;
+        this.encrypt = encrypt;
+        this.ctr = mode == SAESMode.CTR ? new SAESCtr(cipher, iv16, ForkJoinPool.commonPool()) : null;
+        this.chain = iv16 & 0xFFFF;
+    }
+
+    // 缓冲区中已有count字节时，现在就可以处理的前缀长度（其余字节须留到后续数据或doFinal）
+    int processable(int count) {
+        if (!mode.isPadded()) return count;
+        int complete = count & ~1;
+        return encrypt ? complete : Math.max(0, complete - SAESPadding.BLOCK_BYTES);
+    }
+
+    // 就地处理data[off..off+len)，len须为processable给出的长度
+    void update(byte[] data, int off, int len) {
+        switch (mode) {
+            case ECB:
+                if (encrypt) {
+                    SAESCore.encrypt(cipher, data, off, data, off, len);
+                } else {
+                    SAESCore.decrypt(cipher, data, off, data, off, len);
+                }
+                break;
+            case CBC:
+                chain = encrypt ? SAESCore.encryptCBC(cipher, data, off, data, off, len, chain)
+                        : SAESCore.decryptCBC(cipher, data, off, data, off, len, chain);
+                break;
+            default:
+                ctr.process(data, off, data, off, len, streamOffset);
+                break;
+        }
+        streamOffset += len;
+    }
+
+    /**
+     * 处理最后剩下的data[off..off+len)，返回输出长度
+     * 加密时补PKCS#7填充（data须在其后预留2字节）；解密时去除填充，填充无效或长度不对时抛出IOException。
+     */
+    int doFinal(byte[] data, int off, int len) throws IOException {
+        if (!mode.isPadded()) {
+            update(data, off, len);
+            return len;
+        }
+        if (encrypt) {
+            int padded = SAESPadding.pad(data, off, len);
+            update(data, off, padded);
+            return padded;
+        }
+        if (len != SAESPadding.BLOCK_BYTES) {
+            throw new IOException("密文长度必须为2字节的整数倍且不为空");
+        }
+        update(data, off, len);
+        int plainLen = SAESPadding.unpaddedLength(data, off, len);
+        if (plainLen < 0) throw new IOException("PKCS#7填充无效（密钥、IV或模式错误，或数据被篡改）");
+        return plainLen;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+/**
+ * S-AES 查表轮函数（类似AES的T表）
+ * 把半字节代替、行移位、列混淆合并成以字节为下标的查找表，一个分组只需
+ * 4次查表加若干次异或。所有表在类加载时由SAES.S_BOX/INV_S_BOX和SAES.gfMult生成。
+ */
+public final class SAESTables {
+    // 加密中间轮：SubNibbles → ShiftRows → MixColumns，分别以状态高字节(s00,s10)、低字节(s01,s11)为下标
+    private static final int[] ENC_ROUND_HI = new int[256];
+    private static final int[] ENC_ROUND_LO = new int[256];
+    // 加密最后一轮：SubNibbles → ShiftRows
+    private static final int[] ENC_FINAL_HI = new int[256];
+    private static final int[] ENC_FINAL_LO = new int[256];
+    // 解密中间轮：InvShiftRows → InvSubNibbles → InvMixColumns（轮密钥加移到InvMixColumns之后，见expandKey）
+    private static final int[] DEC_ROUND_HI = new int[256];
+    private static final int[] DEC_ROUND_LO = new int[256];
+    // 解密最后一轮：InvShiftRows → InvSubNibbles
+    private static final int[] DEC_FINAL_HI = new int[256];
+    private static final int[] DEC_FINAL_LO = new int[256];
+
+    static {
+        int[] sBox = SAES.S_BOX;
+        int[] invSBox = SAES.INV_S_BOX;
+        for (int b = 0; b < 256; b++) {
+            int hi = b >> 4, lo = b & 0xF;
+            int sHi = sBox[hi], sLo = sBox[lo];
+            int iHi = invSBox[hi], iLo = invSBox[lo];
+
+            // 高字节(s00,s10)：行移位后s00留在第0列上方，s10移到第1列下方
+            ENC_ROUND_HI[b] = (sHi << 12) | (SAES.gfMult(4, sHi) << 8) | (SAES.gfMult(4, sLo) << 4) | sLo;
+            ENC_FINAL_HI[b] = (sHi << 12) | sLo;
+            DEC_ROUND_HI[b] = (SAES.gfMult(9, iHi) << 12) | (SAES.gfMult(2, iHi) << 8)
+                    | (SAES.gfMult(2, iLo) << 4) | SAES.gfMult(9, iLo);
+            DEC_FINAL_HI[b] = (iHi << 12) | iLo;
+
+            // 低字节(s01,s11)：s01留在第1列上方，s11移到第0列下方
+            ENC_ROUND_LO[b] = (SAES.gfMult(4, sLo) << 12) | (sLo << 8) | (sHi << 4) | SAES.gfMult(4, sHi);
+            ENC_FINAL_LO[b] = (sLo << 8) | (sHi << 4);
+            DEC_ROUND_LO[b] = (SAES.gfMult(2, iLo) << 12) | (SAES.gfMult(9, iLo) << 8)
+                    | (SAES.gfMult(9, iHi) << 4) | SAES.gfMult(2, iHi);
+            DEC_FINAL_LO[b] = (iLo << 8) | (iHi << 4);
+        }
+    }
+
+    private SAESTables() {
+    }
+
+
+    // 密钥扩展：在SAESPacked的打包轮密钥基础上，把InvMixColumns(K1)放入bit63~48供解密使用
+    public static long expandKey(int key16) {
+        long roundKeys = SAESPacked.expandKey(key16);
+        int invMixedK1 = SAESPacked.invMixColumns(SAESPacked.roundKey(roundKeys, 1));
+        return roundKeys | ((long) invMixedK1 << 48);
+    }
+
+    // 使用expandKey的结果加密一个16位分组
+    public static int encrypt(int plaintext16, long roundKeys) {
+        int s = (plaintext16 ^ (int) (roundKeys >>> 32)) & 0xFFFF;
+        s = ENC_ROUND_HI[s >> 8] ^ ENC_ROUND_LO[s & 0xFF] ^ ((int) (roundKeys >>> 16) & 0xFFFF);
+        return ENC_FINAL_HI[s >> 8] ^ ENC_FINAL_LO[s & 0xFF] ^ ((int) roundKeys & 0xFFFF);
+    }
+
+    // 使用expandKey的结果解密一个16位分组：InvMixColumns为线性变换，故(x⊕K1)先混淆等于混淆后再⊕InvMix(K1)
+    public static int decrypt(int ciphertext16, long roundKeys) {
+        int s = (ciphertext16 ^ (int) roundKeys) & 0xFFFF;
+        s = DEC_ROUND_HI[s >> 8] ^ DEC_ROUND_LO[s & 0xFF] ^ (int) (roundKeys >>> 48);
+        return DEC_FINAL_HI[s >> 8] ^ DEC_FINAL_LO[s & 0xFF] ^ ((int) (roundKeys >>> 32) & 0xFFFF);
+    }
+
+    // 基础加密：与SAES.encrypt16结果一致
+    public static int encrypt16(int plaintext16, int key16) {
+        return encrypt(plaintext16, expandKey(key16));
+    }
+
+    // 基础解密：与SAES.decrypt16结果一致
+    public static int decrypt16(int ciphertext16, int key16) {
+        return decrypt(ciphertext16, expandKey(key16));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 三密钥三重加密（模式2：C = E(K3, E(K2, E(K1, P)))，48位密钥）的中间相遇攻击
+ * 中间值取第一层之后：前向索引E(K1, P0) → K1只需2^16项内存；
+ * 后向遍历全部(K2, K3)共2^32种组合计算D(K2, D(K3, C0))，按中间值O(1)找出K1。
+ * 每对明密文约把候选缩小2^16倍，1对约2^32个、2对约2^16个、3对约1个（即真实密钥），
+ * 因此过滤阶段对第i对预先算好E(K1, Pi)和D(K3, Ci)，每个候选只需一次查表解密即可淘汰。
+ * 第2对的E(K1, P1)按索引中K1的顺序重排，与桶位置对齐，候选淘汰前不必再读出K1（少一次随机访存）。
+ * 按K3分块在ForkJoinPool中并行，支持进度回调与取消。
+ */
+public final class SAESTripleMitm {
+    private static final int KEY_COUNT = SAESMitmIndex.KEY_COUNT;
+    // 每个并行分块处理的K3数（每个K3内层遍历全部K2）
+    private static final int CHUNK_OUTER_KEYS = 16;
+    // 候选密钥数上限的默认值，超过即说明明密文对不足
+    public static final int DEFAULT_MAX_CANDIDATES = 1 << 20;
+
+    private SAESTripleMitm() {
+    }
+
+    // 在公共ForkJoinPool中执行，候选数超过DEFAULT_MAX_CANDIDATES时抛出异常
+    public static long[] findKeys(int[] plaintexts16, int[] ciphertexts16) {
+        return findKeys(plaintexts16, ciphertexts16, DEFAULT_MAX_CANDIDATES, ForkJoinPool.commonPool(), null, null);
+    }
+
+    /**
+     * 返回与全部N对明密文一致的48位密钥（K1<<32 | K2<<16 | K3），按无符号升序
+     * 候选数超过maxCandidates时抛出IllegalStateException（应增加明密文对）；
+     * token被取消时抛出CancellationException。listener和token均可为null。
+     */
+    public static long[] findKeys(int[] plaintexts16, int[] ciphertexts16, int maxCandidates, ForkJoinPool pool,
+                                  SAESProgressListener listener, SAESCancellationToken token) {
+        SAESMitm.checkPairs(plaintexts16, ciphertexts16);
+        long[] roundKeys = SAESMitm.allRoundKeys();
+        int pairs = plaintexts16.length;
+        SAESProgressTracker tracker = new SAESProgressTracker(listener, token, (long) KEY_COUNT * KEY_COUNT);
+
+        // 前向：第一对的索引；过滤用的forward[i][K1] = E(K1, Pi)与backward[i][K3] = D(K3, Ci)
+        tracker.setPhase("前向计算E(P, K1)");
+        SAESMitmIndex index = SAESMitmIndex.build(plaintexts16[0]);
+        char[][] forward = new char[pairs][KEY_COUNT];
+        char[][] backward = new char[pairs][KEY_COUNT];
+        for (int i = 0; i < pairs; i++) {
+            for (int key = 0; key < KEY_COUNT; key++) {
+                forward[i][key] = (char) SAESTables.encrypt(plaintexts16[i], roundKeys[key]);
+                backward[i][key] = (char) SAESTables.decrypt(ciphertexts16[i], roundKeys[key]);
+            }
+        }
+        // aligned[j] = E(K1, P1)，其中K1 = index.keyAt(j)
+        char[] aligned = new char[KEY_COUNT];
+        if (pairs > 1) {
+            for (int j = 0; j < KEY_COUNT; j++) {
+                aligned[j] = forward[1][index.keyAt(j)];
+            }
+        }
+
+        tracker.setPhase("后向匹配D(K2, D(K3, C))");
+        AtomicLong found = new AtomicLong();
+        long[][] result = {new long[16]};
+        int[] resultCount = {0};
+        SAESParallel.forEachChunk(pool, 0, KEY_COUNT, CHUNK_OUTER_KEYS, (from, to) -> {
+            long[] local = new long[16];
+            int localCount = 0;
+            for (int k3 = (int) from; k3 < to; k3++) {
+                tracker.checkCancelled();
+                int back0 = backward[0][k3];
+                int back1 = pairs > 1 ? backward[1][k3] : 0;
+                for (int k2 = 0; k2 < KEY_COUNT; k2++) {
+                    long roundKeys2 = roundKeys[k2];
+                    int mid = SAESTables.decrypt(back0, roundKeys2);
+                    int start = index.bucketStart(mid);
+                    int end = index.bucketEnd(mid);
+                    if (start == end) continue;
+                    int mid1 = pairs > 1 ? SAESTables.decrypt(back1, roundKeys2) : 0;
+                    for (int j = start; j < end; j++) {
+                        if (pairs > 1 && aligned[j] != mid1) continue;
+                        int k1 = index.keyAt(j);
+                        if (matchesAll(k1, k3, roundKeys2, forward, backward)) {
+                            if (found.incrementAndGet() > maxCandidates) {
+                                throw new IllegalStateException("候选密钥超过" + maxCandidates + "个，请增加明密文对");
+                            }
+                            if (localCount == local.length) local = Arrays.copyOf(local, localCount * 2);
+                            local[localCount++] = ((long) k1 << 32) | ((long) k2 << 16) | k3;
+                        }
+                    }
+                }
+            }
+            synchronized (result) {
+                if (resultCount[0] + localCount > result[0].length) {
+                    result[0] = Arrays.copyOf(result[0], Math.max(result[0].length * 2, resultCount[0] + localCount));
+                }
+                System.arraycopy(local, 0, result[0], resultCount[0], localCount);
+                resultCount[0] += localCount;
+            }
+            tracker.advance((to - from) * KEY_COUNT, localCount);
+        });
+        long[] keys = Arrays.copyOf(result[0], resultCount[0]);
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    // 候选(K1, K2, K3)是否满足第3..N对：D(K2, D(K3, Ci)) = E(K1, Pi)，遇到不符立即返回
+    private static boolean matchesAll(int k1, int k3, long roundKeys2, char[][] forward, char[][] backward) {
+        for (int i = 2; i < forward.length; i++) {
+            if (SAESTables.decrypt(backward[i][k3], roundKeys2) != forward[i][k1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 48位密钥的十六进制表示（12个字符），便于显示
+    public static String toHex(long key48) {
+        return String.format("%012X", key48 & 0xFFFFFFFFFFFFL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,214 @@
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * 基于Vector API（jdk.incubator.vector）的S-AES批量引擎
+ * 每个short通道保存一个16位分组，半字节代替用16通道的查表向量selectFrom完成，
+ * 列混淆的GF(2⁴)乘法用逐通道的移位/异或计算。
+ * 编译和运行都需要--add-modules jdk.incubator.vector，因此单独放在vector/目录，不随根目录源码一起编译；
+ * 不要直接引用本类，应通过-Dsaes.engine=vector由SAESEngines按名称加载，模块不可用时自动退回标量引擎。
+ */
+public final class SAESVectorEngine implements SAESBlockCipher {
+    // 固定16个short通道：恰好容纳一张16项的S盒，AVX2/AVX-512上都是原生宽度
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_256;
+    private static final int LANES = SPECIES.length();
+    // ByteBuffer批量处理时的中转缓冲大小（分组数）
+    private static final int BUFFER_BLOCKS = 1024;
+
+    private static final ShortVector S_BOX = table(SAES.S_BOX);
+    private static final ShortVector INV_S_BOX = table(SAES.INV_S_BOX);
+
+    private final int key16;
+    private final long roundKeys;
+    private final short k0, k1, k2;
+
+    public SAESVectorEngine(int key16) {
+        this.key16 = key16 & 0xFFFF;
+        this.roundKeys = SAESTables.expandKey(this.key16);
+        this.k0 = (short) SAESPacked.roundKey(roundKeys, 0);
+        this.k1 = (short) SAESPacked.roundKey(roundKeys, 1);
+        this.k2 = (short) SAESPacked.roundKey(roundKeys, 2);
+    }
+
+    // 当前CPU的首选向量宽度不小于256位时才值得启用，否则16通道会退化为软件模拟
+    public static boolean isSupported() {
+        return ShortVector.SPECIES_PREFERRED.vectorBitSize() >= SPECIES.vectorBitSize();
+    }
+
+    public int getKey() {
+        return key16;
+    }
+
+    private static ShortVector table(int[] box) {
+        short[] values = new short[LANES];
+        for (int i = 0; i < LANES; i++) {
+            values[i] = (short) box[i % box.length];
+        }
+        return ShortVector.fromArray(SPECIES, values, 0);
+    }
+
+
+    @Override
+    public int encryptBlock(int plaintext16) {
+        return SAESTables.encrypt(plaintext16, roundKeys);
+    }
+
+    @Override
+    public int decryptBlock(int ciphertext16) {
+        return SAESTables.decrypt(ciphertext16, roundKeys);
+    }
+
+    @Override
+    public void encryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        processInts(in, inOff, out, outOff, len, true);
+    }
+
+    @Override
+    public void decryptBlocks(int[] in, int inOff, int[] out, int outOff, int len) {
+        processInts(in, inOff, out, outOff, len, false);
+    }
+
+    // 批量加密short[]：in与out可为同一数组
+    public void encryptBlocks(short[] in, int inOff, short[] out, int outOff, int len) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += LANES) {
+            encryptVector(ShortVector.fromArray(SPECIES, in, inOff + i)).intoArray(out, outOff + i);
+        }
+        for (; i < len; i++) {
+            out[outOff + i] = (short) SAESTables.encrypt(in[inOff + i] & 0xFFFF, roundKeys);
+        }
+    }
+
+    // 批量解密short[]
+    public void decryptBlocks(short[] in, int inOff, short[] out, int outOff, int len) {
+        int i = 0;
+        for (int bound = SPECIES.loopBound(len); i < bound; i += LANES) {
+            decryptVector(ShortVector.fromArray(SPECIES, in, inOff + i)).intoArray(out, outOff + i);
+        }
+        for (; i < len; i++) {
+            out[outOff + i] = (short) SAESTables.decrypt(in[inOff + i] & 0xFFFF, roundKeys);
+        }
+    }
+
+    // 原地加密ByteBuffer中从position到limit的数据（大端2字节分组，长度须为偶数），完成后position移到limit
+    public void encrypt(ByteBuffer buffer) {
+        processBuffer(buffer, true);
+    }
+
+    // 原地解密ByteBuffer中从position到limit的数据
+    public void decrypt(ByteBuffer buffer) {
+        processBuffer(buffer, false);
+    }
+
+
+    private void processInts(int[] in, int inOff, int[] out, int outOff, int len, boolean encrypt) {
+        short[] chunk = new short[Math.min(len, BUFFER_BLOCKS)];
+        for (int done = 0; done < len; done += chunk.length) {
+            int n = Math.min(chunk.length, len - done);
+            for (int i = 0; i < n; i++) chunk[i] = (short) in[inOff + done + i];
+            if (encrypt) encryptBlocks(chunk, 0, chunk, 0, n);
+            else decryptBlocks(chunk, 0, chunk, 0, n);
+            for (int i = 0; i < n; i++) out[outOff + done + i] = chunk[i] & 0xFFFF;
+        }
+    }
+
+    private void processBuffer(ByteBuffer buffer, boolean encrypt) {
+        if ((buffer.remaining() & 1) != 0) throw new IllegalArgumentException("数据长度必须为偶数（2字节分组）");
+        ShortBuffer view = buffer.slice().asShortBuffer();
+        short[] chunk = new short[Math.min(view.remaining(), BUFFER_BLOCKS)];
+        while (view.hasRemaining()) {
+            int n = Math.min(chunk.length, view.remaining());
+            int start = view.position();
+            view.get(chunk, 0, n);
+            if (encrypt) encryptBlocks(chunk, 0, chunk, 0, n);
+            else decryptBlocks(chunk, 0, chunk, 0, n);
+            view.position(start);
+            view.put(chunk, 0, n);
+        }
+        buffer.position(buffer.limit());
+    }
+
+
+    // 向量加密：流程与SAES.encrypt16相同
+    private ShortVector encryptVector(ShortVector v) {
+        v = v.lanewise(VectorOperators.XOR, k0);
+        v = mixColumns(shiftRows(subNibbles(v, S_BOX))).lanewise(VectorOperators.XOR, k1);
+        return shiftRows(subNibbles(v, S_BOX)).lanewise(VectorOperators.XOR, k2);
+    }
+
+    // 向量解密：流程与SAES.decrypt16相同
+    private ShortVector decryptVector(ShortVector v) {
+        v = v.lanewise(VectorOperators.XOR, k2);
+        v = invMixColumns(subNibbles(shiftRows(v), INV_S_BOX).lanewise(VectorOperators.XOR, k1));
+        return subNibbles(shiftRows(v), INV_S_BOX).lanewise(VectorOperators.XOR, k0);
+    }
+
+    // 半字节代替：取出每个半字节作为下标，在查表向量中选取
+    private static ShortVector subNibbles(ShortVector v, ShortVector box) {
+        ShortVector result = nibble(v, 0).selectFrom(box);
+        for (int shift = 4; shift < 16; shift += 4) {
+            result = result.or(nibble(v, shift).selectFrom(box).lanewise(VectorOperators.LSHL, shift));
+        }
+        return result;
+    }
+
+    private static ShortVector nibble(ShortVector v, int shift) {
+        return v.lanewise(VectorOperators.LSHR, shift).and((short) 0xF);
+    }
+
+    // 行移位：交换s10（bit11~8）与s11（bit3~0）
+    private static ShortVector shiftRows(ShortVector v) {
+        return v.and((short) 0xF0F0)
+                .or(v.lanewise(VectorOperators.LSHR, 8).and((short) 0x000F))
+                .or(v.and((short) 0x000F).lanewise(VectorOperators.LSHL, 8));
+    }
+
+    // 列混淆：每列(a,b) → (a⊕4b, 4a⊕b)，即v ⊕ 交换每字节两个半字节后的(4·v)
+    private static ShortVector mixColumns(ShortVector v) {
+        return v.lanewise(VectorOperators.XOR, swapNibbles(mul4(v)));
+    }
+
+    // 逆列混淆：每列(a,b) → (9a⊕2b, 2a⊕9b)
+    private static ShortVector invMixColumns(ShortVector v) {
+        return mul9(v).lanewise(VectorOperators.XOR, swapNibbles(mul2(v)));
+    }
+
+    private static ShortVector swapNibbles(ShortVector v) {
+        return v.lanewise(VectorOperators.LSHR, 4).and((short) 0x0F0F)
+                .or(v.lanewise(VectorOperators.LSHL, 4).and((short) 0xF0F0));
+    }
+
+    // 每个半字节的第i位
+    private static ShortVector bit(ShortVector v, int i) {
+        return v.lanewise(VectorOperators.LSHR, i).and((short) 0x1111);
+    }
+
+    // 逐半字节乘4：b0=a2，b1=a2^a3，b2=a0^a3，b3=a1
+    private static ShortVector mul4(ShortVector v) {
+        ShortVector a0 = bit(v, 0), a1 = bit(v, 1), a2 = bit(v, 2), a3 = bit(v, 3);
+        return a2.or(a2.lanewise(VectorOperators.XOR, a3).lanewise(VectorOperators.LSHL, 1))
+                .or(a0.lanewise(VectorOperators.XOR, a3).lanewise(VectorOperators.LSHL, 2))
+                .or(a1.lanewise(VectorOperators.LSHL, 3));
+    }
+
+    // 逐半字节乘2：b0=a3，b1=a0^a3，b2=a1，b3=a2
+    private static ShortVector mul2(ShortVector v) {
+        ShortVector a0 = bit(v, 0), a1 = bit(v, 1), a2 = bit(v, 2), a3 = bit(v, 3);
+        return a3.or(a0.lanewise(VectorOperators.XOR, a3).lanewise(VectorOperators.LSHL, 1))
+                .or(a1.lanewise(VectorOperators.LSHL, 2))
+                .or(a2.lanewise(VectorOperators.LSHL, 3));
+    }
+
+    // 逐半字节乘9：b0=a0^a1，b1=a2，b2=a3，b3=a0
+    private static ShortVector mul9(ShortVector v) {
+        ShortVector a0 = bit(v, 0), a1 = bit(v, 1), a2 = bit(v, 2), a3 = bit(v, 3);
+        return a0.lanewise(VectorOperators.XOR, a1)
+                .or(a2.lanewise(VectorOperators.LSHL, 1))
+                .or(a3.lanewise(VectorOperators.LSHL, 2))
+                .or(a0.lanewise(VectorOperators.LSHL, 3));
+    }
+}
\ No newline at end of file